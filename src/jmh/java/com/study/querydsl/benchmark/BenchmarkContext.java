@@ -0,0 +1,64 @@
+package com.study.querydsl.benchmark;
+
+import com.study.querydsl.QueryDslApplication;
+import com.study.querydsl.service.MemberDataSeeder;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 데이터 규모(members)별로 내장 H2에 데이터를 채운 스프링 컨텍스트
+ * 스키마와 인덱스는 운영과 같이 flyway 마이그레이션으로 만든다.
+ * 측정에 영향을 주는 SQL 로그, p6spy, count 캐시는 끈다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    @Param({"1000", "10000", "100000"})
+    public int members;
+
+    public int teams = 100;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(QueryDslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments().toArray(String[]::new));
+
+        getBean(MemberDataSeeder.class).seed(teams, members);
+    }
+
+    /**
+     * 측정마다 설정을 바꾸려면 상속해서 인자를 추가한다
+     */
+    protected List<String> arguments() {
+        return new ArrayList<>(List.of(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + members + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--decorator.datasource.enabled=false",
+                "--querydsl.count-cache.enabled=false"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,69 @@
+package com.study.querydsl.benchmark;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberJpaRepository;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검색 레포지토리 메서드 측정
+ * 조건: 가장 큰 팀(team0)의 30세 이상 멤버
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private MemberRepositoryRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberSearchCondition condition;
+    private int lastPage;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        memberRepository = context.getBean(MemberRepositoryRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team0");
+        condition.setAgeGoe(30);
+
+        long total = memberRepository.searchComplex(condition, PageRequest.of(0, PAGE_SIZE)).getTotalElements();
+        lastPage = (int) Math.max(0, (total - 1) / PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> customSearch() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> jpaSearch() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchComplexFirstPage() {
+        return memberRepository.searchComplex(condition, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchComplexLastPage() {
+        return memberRepository.searchComplex(condition, PageRequest.of(lastPage, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,118 @@
+package com.study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberDto;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.dto.QMemberTeamDTO;
+import com.study.querydsl.dto.UserDto;
+import com.study.querydsl.projection.DtoProjections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+
+/**
+ * QueryDSLTest에서 사용한 DTO 프로젝션 방식별 측정
+ * 같은 컬럼을 조회하므로 차이는 row를 DTO로 만드는 비용이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionBenchmark {
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        queryFactory = context.getBean(JPAQueryFactory.class);
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class,
+                        member.name.as("username"),
+                        member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> fields() {
+        return queryFactory
+                .select(Projections.fields(UserDto.class,
+                        member.name,
+                        member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class,
+                        member.name,
+                        member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> queryProjection() {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id,
+                        member.name,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> generatedBean() {
+        return queryFactory
+                .select(DtoProjections.bean(MemberDto.class,
+                        member.name.as("username"),
+                        member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> generatedFields() {
+        return queryFactory
+                .select(DtoProjections.fields(UserDto.class,
+                        member.name,
+                        member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> generatedConstructor() {
+        return queryFactory
+                .select(DtoProjections.constructor(MemberTeamDTO.class,
+                        member.id,
+                        member.name,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+    }
+}
@@ -0,0 +1,69 @@
+package com.study.querydsl.benchmark;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 같은 검색을 동시에 호출할 때의 처리량, 같은 검색 합치기(coalescing)를 켠 경우와 끈 경우
+ * 조건: 가장 큰 팀(team0)의 30세 이상 멤버 첫 페이지
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class SearchCoalescingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private MemberRepositoryRepository memberRepository;
+    private MemberSearchCondition condition;
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+
+        @Param({"true", "false"})
+        public boolean coalescing;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            arguments.add("--querydsl.search.coalescing.enabled=" + coalescing);
+            return arguments;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(Context context) {
+        memberRepository = context.getBean(MemberRepositoryRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team0");
+        condition.setAgeGoe(30);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchComplexSameCondition() {
+        return memberRepository.searchComplex(condition, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> searchSameCondition() {
+        return memberRepository.search(condition);
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 검색 결과 수를 표본으로 추정하는 approximateCount 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.search.approximate-count")
+public class ApproximateCountProperties {
+
+    // 추정에 사용할 member row 수. 전체가 이보다 적으면 정확히 센다
+    private int sampleSize = 5000;
+
+    // 표본을 뽑는 member.id 구간 수 = 실행하는 쿼리 수
+    // 같은 select 문이 statement-budget.repeat-threshold번 반복되면 N+1로 보므로 그보다 작게 잡는다
+    private int windows = 8;
+}
@@ -0,0 +1,18 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 요청 범위 id 조회 묶음(MemberBatchLoader) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.batch-loader")
+public class BatchLoaderProperties {
+
+    // 한 번의 in (...) 쿼리로 조회하는 최대 id 수. 이만큼 모이면 dispatch를 기다리지 않고 바로 조회한다.
+    // in_clause_parameter_padding이 2의 거듭제곱으로 맞추므로 2의 거듭제곱이면 패딩이 생기지 않는다
+    private int maxBatchSize = 128;
+}
@@ -0,0 +1,17 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 벌크 update 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.bulk-update")
+public class BulkUpdateProperties {
+
+    // 한 트랜잭션에서 update하는 member.id 범위의 크기
+    private int chunkSize = 10_000;
+}
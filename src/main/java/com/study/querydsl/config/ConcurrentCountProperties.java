@@ -0,0 +1,22 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * searchComplex의 count 쿼리를 컨텐츠 쿼리와 동시에 실행하는 모드 설정
+ * count 쿼리마다 커넥션을 하나 더 쓰므로 pool-size는 커넥션 풀 크기보다 충분히 작게 잡는다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.search.concurrent-count")
+public class ConcurrentCountProperties {
+
+    private boolean enabled = false;
+
+    private int poolSize = 4;
+
+    // 큐가 가득 차면 기존처럼 컨텐츠 쿼리 다음에 순서대로 실행한다
+    private int queueCapacity = 64;
+}
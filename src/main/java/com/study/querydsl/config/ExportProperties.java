@@ -0,0 +1,23 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 회원 전체 내보내기(MemberExportService) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.export")
+public class ExportProperties {
+
+    // 동시에 읽는 범위 수. 범위마다 커넥션을 하나씩 쓰므로 커넥션 풀 크기보다 충분히 작게 잡는다
+    private int threads = 4;
+
+    // 한 범위(= 한 트랜잭션, 하나의 gzip 멤버)가 맡는 member.id 폭
+    private long rangeSize = 50_000;
+
+    // JDBC 드라이버가 한 번에 가져오는 row 수
+    private int fetchSize = 5_000;
+}
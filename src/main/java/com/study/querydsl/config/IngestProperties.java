@@ -0,0 +1,23 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * NDJSON 회원 일괄 등록(POST /members/bulk) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.ingest")
+public class IngestProperties {
+
+    // JDBC 배치 하나에 담는 insert 수
+    private int batchSize = 1000;
+
+    // 트랜잭션 하나가 저장하는 회원 수. 실패하면 이 범위만 한 줄씩 다시 저장해서 실패한 줄을 찾는다
+    private int commitInterval = 10_000;
+
+    // 응답에 담는 실패한 줄의 최대 개수. 실패 수(failed)는 모두 센다
+    private int maxReportedErrors = 100;
+}
@@ -0,0 +1,24 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * searchComplex의 전체 개수(count) 캐시 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.count-cache")
+public class MemberCountCacheProperties {
+
+    private boolean enabled = true;
+
+    // 서로 다른 검색조건을 최대 몇 개까지 들고 있을지
+    private long maximumSize = 10_000;
+
+    // 쓰기 이벤트로 무효화되지 않는 변경(다른 서버, 직접 실행한 SQL 등)이 반영되기까지의 최대 지연
+    private Duration ttl = Duration.ofSeconds(30);
+}
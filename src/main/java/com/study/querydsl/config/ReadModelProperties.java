@@ -0,0 +1,20 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 회원 검색용 메모리 읽기 모델(MemberReadModel) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.read-model")
+public class ReadModelProperties {
+
+    // 전체 회원을 메모리에 올리므로 회원 수를 보고 켠다
+    private boolean enabled = false;
+
+    // 메모리에서 검색한 결과 중 이 비율만큼은 DB에서도 조회해서 비교한다. 다르면 다시 읽는다
+    private double verifySampleRate = 0.01;
+}
@@ -0,0 +1,91 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * querydsl.read-replica.enabled=true이면 spring.datasource를 primary로, querydsl.read-replica.replicas를 replica로 하는
+ * 라우팅 데이터소스를 만든다.
+ *
+ * 로컬에서는 H2를 두 개 띄워서 확인할 수 있다(replica 쪽 스키마/데이터 복제는 직접 해야 한다).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig implements DisposableBean {
+
+    // 빈으로 등록되는 것은 LazyConnectionDataSourceProxy이므로 종료는 여기서 직접 한다
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties,
+                                 MeterRegistry meterRegistry) {
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry); // hikaricp.connections.*{pool=primary}
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicaKeys = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            String key = "replica-" + i;
+            dataSource.setPoolName(key);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setInitializationFailTimeout(-1); // replica가 내려가 있어도 기동은 한다
+            dataSource.setMetricRegistry(meterRegistry);
+            targets.put(key, dataSource);
+            replicaKeys.add(key);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(targets, replicaKeys,
+                properties.getReadYourWritesWindow(), properties.getHealthCheckInterval());
+        routingDataSource.afterPropertiesSet();
+
+        // 트랜잭션의 readOnly 여부가 정해진 뒤(첫 SQL 실행 시점)에 커넥션을 얻도록 한다
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void destroy() {
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+    }
+
+    /**
+     * 하이버네이트가 트랜잭션이 끝나도 커넥션을 들고 있으면(OSIV) 다음 트랜잭션이 readOnly 여부와 관계없이
+     * 같은 커넥션을 쓰게 되므로, 트랜잭션마다 커넥션을 반납하게 한다
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,42 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 replica로 보내는 설정
+ * primary는 spring.datasource.* 를 그대로 사용한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.read-replica")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // replica 커넥션 확인 주기. 실패한 replica는 다음 확인에서 살아나면 다시 사용한다
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // 쓰기 트랜잭션을 커밋한 스레드(요청)는 이 시간 동안 읽기도 primary에서 한다. replica 복제 지연보다 길게 잡는다
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
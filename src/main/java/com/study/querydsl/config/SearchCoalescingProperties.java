@@ -0,0 +1,16 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 동시에 들어온 같은 검색을 한 번만 실행하는 모드 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.search.coalescing")
+public class SearchCoalescingProperties {
+
+    private boolean enabled = true;
+}
@@ -0,0 +1,42 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * local 프로파일에서 실행되는 테스트 데이터 생성 설정
+ * 운영 규모의 페이징/count 문제를 재현할 때는 members, teams를 늘려서 실행한다.
+ * ex) --querydsl.seed.mode=generated --querydsl.seed.members=3000000 --querydsl.seed.teams=5000
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.seed")
+public class SeedProperties {
+
+    private boolean enabled = true;
+
+    private Mode mode = Mode.EXAMPLE;
+
+    // mode=generated일 때의 규모
+    private int teams = 2;
+
+    private long members = 100;
+
+    // JDBC 배치 한 번에 보내는 insert 수
+    private int batchSize = 1000;
+
+    // 트랜잭션 하나가 처리하는 member 수
+    private int chunkSize = 50_000;
+
+    // 청크를 동시에 처리하는 스레드 수. 커넥션 풀 크기를 넘지 않게 잡는다
+    private int threads = 4;
+
+    // 같은 값이면 같은 데이터가 만들어진다
+    private long randomSeed = 42L;
+
+    public enum Mode {
+        EXAMPLE,   // teamA/teamB, member0~99 (나이 = 번호). 예제 코드와 테스트가 가정하는 데이터
+        GENERATED  // teams/members 규모로 이름, 나이, 팀 크기를 분포에 맞춰 생성
+    }
+}
@@ -0,0 +1,34 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP 요청/트랜잭션당 실행하는 select 문 예산과 N+1 감지 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+
+    // 예산을 넘거나 N+1이 감지됐을 때 어떻게 할지
+    private Mode mode = Mode.LOG;
+
+    // HTTP 요청 하나에서 실행할 수 있는 select 문 수
+    private int maxPerRequest = 100;
+
+    // 트랜잭션 하나에서 실행할 수 있는 select 문 수
+    private int maxPerTransaction = 100;
+
+    // 같은 select 문(파라미터만 다른)이 이 횟수만큼 반복되면 N+1로 본다
+    private int repeatThreshold = 10;
+
+    public enum Mode {
+        LOG,    // 경고 로그 + 메트릭
+        METRIC, // 메트릭만
+        FAIL    // 예외를 던져서 쿼리를 실패시킨다(테스트용)
+    }
+}
@@ -0,0 +1,20 @@
+package com.study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 스크롤 커서 기반 스트림 조회 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.stream")
+public class StreamProperties {
+
+    // JDBC 드라이버가 한 번에 가져오는 row 수
+    private int fetchSize = 500;
+
+    // 엔티티 스트림에서 이 개수만큼 읽을 때마다 읽은 엔티티를 영속성 컨텍스트에서 뺀다(detach). 0이면 빼지 않는다
+    private int clearInterval = 1000;
+}
@@ -1,19 +1,47 @@
 package com.study.querydsl.controller;
 
+import com.study.querydsl.dto.ApproximateCount;
+import com.study.querydsl.dto.BulkIngestResult;
+import com.study.querydsl.dto.CursorPage;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.repository.MemberJpaRepository;
+import com.study.querydsl.repository.MemberKeysetCursor;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import com.study.querydsl.service.ExportFormat;
+import com.study.querydsl.service.MemberBulkIngestService;
+import com.study.querydsl.service.MemberExportService;
+import com.study.querydsl.service.MemberStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class HelloController {
 
+    private static final int MAX_PAGE_SIZE = 1000; // spring.data.web.pageable.max-page-size와 동일
+
     private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepositoryRepository memberRepository;
+    private final MemberStreamService memberStreamService;
+    private final MemberExportService memberExportService;
+    private final MemberBulkIngestService memberBulkIngestService;
 
     @GetMapping
     public String hello(){
@@ -24,4 +52,73 @@ public class HelloController {
     public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition){
         return memberJpaRepository.search(condition);
     }
+
+    /**
+     * 무한 스크롤용 페이징: 전체 개수 없이 다음 페이지가 있는지(last)만 알려준다
+     */
+    @GetMapping("/v1/members/slice")
+    public Slice<MemberTeamDTO> searchMemberSlice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    /**
+     * 검색 결과 수를 표본으로 추정한 값과 오차 범위 ("약 N건")
+     */
+    @GetMapping("/v1/members/count/approximate")
+    public ApproximateCount countMembersApproximately(MemberSearchCondition condition) {
+        return memberRepository.approximateCount(condition);
+    }
+
+    /**
+     * 검색 결과 전체를 NDJSON으로 스트리밍한다
+     */
+    @GetMapping(value = "/v1/members/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamMemberV1(MemberSearchCondition condition) {
+        return out -> memberStreamService.writeNdjson(condition, out);
+    }
+
+    /**
+     * 회원 + 팀 전체를 gzip으로 압축한 CSV/NDJSON 파일로 내려받는다
+     * @param format  csv | ndjson
+     * @param ordered true이면 member.id 순. 정렬하지 않으면 더 빠르다
+     */
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(@RequestParam(defaultValue = "csv") String format,
+                                                               @RequestParam(defaultValue = "false") boolean ordered) {
+        ExportFormat exportFormat = ExportFormat.ofExtension(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "지원하지 않는 형식입니다: " + format));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("members." + exportFormat.getExtension() + ".gz")
+                        .build()
+                        .toString())
+                .body(out -> memberExportService.export(exportFormat, ordered, out));
+    }
+
+    /**
+     * 본문의 NDJSON(한 줄에 회원 하나)을 읽는 대로 일괄 등록한다
+     * ex) {"username":"member1","age":20,"teamName":"teamA"}
+     * 일부 줄이 실패해도 나머지는 저장하고, 실패한 줄 번호와 이유를 돌려준다
+     */
+    @PostMapping(value = "/members/bulk", consumes = "application/x-ndjson")
+    public BulkIngestResult ingestMembers(InputStream body) throws IOException {
+        return memberBulkIngestService.ingest(body);
+    }
+
+    /**
+     * keyset 페이징: 응답의 nextCursor/prevCursor를 cursor 파라미터로 다시 넘겨서 이동한다
+     */
+    @GetMapping("/v2/members")
+    public CursorPage<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "10") int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size는 1 이상이어야 합니다: " + size);
+        }
+        if (!MemberKeysetCursor.isValid(cursor)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다: " + cursor);
+        }
+        return memberRepository.searchKeyset(condition, cursor, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
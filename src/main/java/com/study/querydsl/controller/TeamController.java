@@ -0,0 +1,31 @@
+package com.study.querydsl.controller;
+
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.service.TeamStatsStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsStore teamStatsStore;
+
+    /**
+     * 팀별 회원 수, 나이 합계/평균/최소/최대
+     */
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsStore.findAll();
+    }
+
+    @GetMapping("/v1/teams/{teamId}/stats")
+    public ResponseEntity<TeamStatsDto> teamStats(@PathVariable Long teamId) {
+        return ResponseEntity.of(teamStatsStore.findByTeamId(teamId));
+    }
+}
@@ -0,0 +1,199 @@
+package com.study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica로, 나머지는 primary로 보내는 데이터소스
+ *
+ * 트랜잭션이 시작될 때가 아니라 첫 SQL을 실행할 때 커넥션을 얻어야 readOnly 여부를 알 수 있으므로
+ * 반드시 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ *
+ * - replica가 여러 개면 돌아가면서(round robin) 사용한다.
+ * - 커넥션을 얻지 못한 replica는 빼고, 주기적으로 확인해서 살아나면 다시 넣는다. 살아있는 replica가 없으면 primary를 사용한다.
+ * - 쓰기 트랜잭션을 커밋한 스레드는 readYourWritesWindow 동안 primary에서 읽는다(복제 지연으로 방금 쓴 내용이 안 보이는 것을 막는다).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final Set<String> downReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final long readYourWritesNanos;
+    private final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+
+    private final Duration healthCheckInterval;
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param targets PRIMARY와 replicaKeys를 키로 하는 데이터소스
+     */
+    public ReplicaRoutingDataSource(Map<String, DataSource> targets, List<String> replicaKeys,
+                                    Duration readYourWritesWindow, Duration healthCheckInterval) {
+        this.replicaKeys = List.copyOf(replicaKeys);
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.healthCheckInterval = healthCheckInterval;
+
+        setTargetDataSources(new HashMap<>(targets));
+        setDefaultTargetDataSource(targets.get(PRIMARY));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!replicaKeys.isEmpty() && !healthCheckInterval.isZero()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = healthCheckInterval.toMillis();
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 상태 확인을 멈추고 커넥션 풀을 닫는다
+     */
+    @Override
+    public void destroy() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("데이터소스를 닫지 못했습니다", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            return PRIMARY;
+        }
+        if (recentlyWrote()) {
+            return PRIMARY;
+        }
+        return nextReplica();
+    }
+
+    /**
+     * replica에서 커넥션을 얻지 못하면 그 replica를 빼고 primary를 사용한다
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSupplier supplier) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = getResolvedDataSources().get(key);
+        if (PRIMARY.equals(key)) {
+            return supplier.get(target);
+        }
+
+        try {
+            return supplier.get(target);
+        } catch (SQLException e) {
+            markDown((String) key, e);
+            return supplier.get(getResolvedDefaultDataSource());
+        }
+    }
+
+    private String nextReplica() {
+        int size = replicaKeys.size();
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get(Math.floorMod(next.getAndIncrement(), size));
+            if (!downReplicas.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * 쓰기 트랜잭션이 커밋되면 이 스레드의 읽기를 잠시 primary로 고정한다
+     */
+    private void rememberWrite() {
+        if (readYourWritesNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                primaryUntil.set(System.nanoTime() + readYourWritesNanos);
+            }
+        });
+    }
+
+    private boolean recentlyWrote() {
+        Long until = primaryUntil.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        primaryUntil.remove();
+        return false;
+    }
+
+    private void markDown(String key, SQLException cause) {
+        if (downReplicas.add(key)) {
+            log.warn("replica {} 커넥션 실패, primary로 대신 읽습니다: {}", key, cause.getMessage());
+        }
+    }
+
+    void checkReplicas() {
+        Map<Object, DataSource> dataSources = getResolvedDataSources();
+        for (String key : replicaKeys) {
+            try (Connection connection = dataSources.get(key).getConnection()) {
+                if (connection.isValid(1) && downReplicas.remove(key)) {
+                    log.info("replica {} 복구", key);
+                }
+            } catch (SQLException e) {
+                markDown(key, e);
+            }
+        }
+    }
+
+    boolean isDown(String key) {
+        return downReplicas.contains(key);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
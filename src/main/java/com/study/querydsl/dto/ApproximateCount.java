@@ -0,0 +1,20 @@
+package com.study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 추정한 검색 결과 수
+ * 실제 값은 95% 확률로 estimate ± errorBound 안에 있다. exact이면 errorBound는 0이다
+ */
+@Data
+@AllArgsConstructor
+public class ApproximateCount {
+    private long estimate;
+    private long errorBound;
+    private boolean exact;
+
+    public static ApproximateCount exact(long count) {
+        return new ApproximateCount(count, 0, true);
+    }
+}
@@ -0,0 +1,31 @@
+package com.study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 회원 일괄 등록 결과
+ * errors에는 실패한 줄 중 앞의 querydsl.ingest.max-reported-errors개만 담긴다
+ */
+@Data
+@AllArgsConstructor
+public class BulkIngestResult {
+    private long received;
+    private long inserted;
+    private long failed;
+    private List<LineError> errors;
+    private long elapsedMillis;
+
+    public double getRowsPerSecond() {
+        return inserted * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line; // 1부터
+        private String message;
+    }
+}
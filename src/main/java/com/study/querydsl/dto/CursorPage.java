@@ -0,0 +1,26 @@
+package com.study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * keyset(seek) 페이징 결과
+ * nextCursor/prevCursor는 클라이언트가 해석하지 않는 불투명한 문자열이며, 더 이상 이동할 페이지가 없으면 null이다
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private String prevCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrev() {
+        return prevCursor != null;
+    }
+}
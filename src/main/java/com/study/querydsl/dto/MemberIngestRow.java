@@ -0,0 +1,16 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * POST /members/bulk 요청 본문의 한 줄
+ * ex) {"username":"member1","age":20,"teamName":"teamA"}
+ */
+@Data
+@NoArgsConstructor
+public class MemberIngestRow {
+    private String username;
+    private Integer age;
+    private String teamName; // 없으면 팀 없이 저장
+}
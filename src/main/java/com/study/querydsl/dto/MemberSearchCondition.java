@@ -1,5 +1,6 @@
 package com.study.querydsl.dto;
 
+import com.study.querydsl.entity.Member;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -10,8 +11,34 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+    private String nameStartsWith;  // 이름 앞부분, 대소문자 무시
+    private String nameIgnoreCase;  // 이름 전체, 대소문자 무시
 
     public MemberSearchCondition(String username) {
         this.username = username;
     }
+
+    /**
+     * 같은 의미의 검색조건이 같은 값이 되도록 정규화한 사본
+     * 문자열은 trim하고, 빈 문자열은 조건이 없는 것(null)으로 본다
+     * 대소문자를 무시하는 조건은 Member.normalizedName과 비교하도록 소문자로 바꾼다
+     */
+    public MemberSearchCondition normalize() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.username = trimToNull(username);
+        normalized.teamName = trimToNull(teamName);
+        normalized.ageGoe = ageGoe;
+        normalized.ageLoe = ageLoe;
+        normalized.nameStartsWith = Member.normalizeName(trimToNull(nameStartsWith));
+        normalized.nameIgnoreCase = Member.normalizeName(trimToNull(nameIgnoreCase));
+        return normalized;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
 }
@@ -0,0 +1,22 @@
+package com.study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 팀별 회원 나이 통계. 회원이 없으면 count, sum은 0이고 avg, min, max는 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg;
+    private Integer min;
+    private Integer max;
+}
@@ -2,22 +2,47 @@ package com.study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.util.Locale;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "member")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member") // 2차 캐시 설정은 application.conf
+@Table(name = "member", indexes = { // 스키마는 db/migration에서 관리한다. ddl-auto로 만들 때도 같은 인덱스가 생기도록 선언
+        @Index(name = "idx_member_name", columnList = "name"),
+        @Index(name = "idx_member_normalized_name", columnList = "normalized_name"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")})
+@NamedEntityGraph(name = Member.WITH_TEAM, attributeNodes = @NamedAttributeNode("team")) // 팀까지 한 번에 조회(join fetch)
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // JPA는 리플렉션을 사용하기 때문에 기본 생성자가 필요하다
 @ToString(of = {"id", "name", "age"}) // ToString항목에 연관관계 정보를 넣지 말자. 무한 루프 발생
 public class Member {
+
+    public static final String WITH_TEAM = "Member.withTeam";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
     private String name;
     private int age;
 
+    // 이름 앞부분 검색, 대소문자를 무시한 검색용(소문자). name을 바꾸면 함께 바뀌므로 직접 바꾸지 않는다
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
     // 외래키와 맵핑된 객체를 연관관계의 주인으로 간주하는게 편하다
+    // 지연 로딩할 때는 영속성 컨텍스트에 있는 다른 member의 team도 hibernate.default_batch_fetch_size개씩 in으로 함께 조회한다
     @JoinColumn(name = "team_id")
     @ManyToOne(fetch = FetchType.LAZY)
     private Team team;
@@ -32,13 +57,29 @@ public class Member {
 
 
     public Member(String name, int age, Team team) {
-        this.name = name;
+        setName(name);
         this.age = age;
         if (team != null) {
             changeTeam(team);
         }
     }
 
+    public void setName(String name) {
+        this.name = name;
+        this.normalizedName = normalizeName(name);
+    }
+
+    // 필드를 리플렉션으로 바꾸는 경우(JPA 외의 코드)에도 저장할 때는 맞춰진다
+    @PrePersist
+    @PreUpdate
+    void syncNormalizedName() {
+        this.normalizedName = normalizeName(name);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
     private void changeTeam(Team team) {
         this.team = team;
         team.getMembers().add(this);
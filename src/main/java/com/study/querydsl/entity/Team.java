@@ -2,6 +2,11 @@ package com.study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,18 +14,28 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "team")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 2차 캐시 설정은 application.conf
+@Table(name = "team", indexes = @Index(name = "idx_team_name", columnList = "name"))
+@NamedEntityGraph(name = Team.WITH_MEMBERS, attributeNodes = @NamedAttributeNode("members")) // 소속 회원까지 한 번에 조회(join fetch)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
+
+    public static final String WITH_MEMBERS = "Team.withMembers";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq_generator")
+    @GenericGenerator(name = "team_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
 
     @Column(name = "name")
     private String name;
 
+    // 지연 로딩할 때는 영속성 컨텍스트에 있는 다른 team의 members도 hibernate.default_batch_fetch_size개씩 함께 조회한다
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team_members")
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,118 @@
+package com.study.querydsl.event;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent.ChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * 하이버네이트의 커밋 후(post-commit) insert/update/delete 이벤트를 EntityChangedEvent로 바꿔서 발행한다
+ * 롤백된 변경은 발행되지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventPublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> PUBLISHED_TYPES = Set.of(Member.class, Team.class);
+
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher publisher;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * 벌크 연산으로 entityType 테이블이 바뀌었음을 알린다
+     * 트랜잭션 안이면 커밋된 후에, 아니면 바로 발행한다.
+     */
+    public void publishBulkChange(Class<?> entityType) {
+        EntityChangedEvent event = EntityChangedEvent.bulk(entityType);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publisher.publishEvent(event);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(ChangeType.INSERTED, event.getPersister(), event.getId(), event.getEntity(),
+                null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(ChangeType.UPDATED, event.getPersister(), event.getId(), event.getEntity(),
+                event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(ChangeType.DELETED, event.getPersister(), event.getId(), event.getEntity(),
+                event.getDeletedState(), null);
+    }
+
+    private void publish(ChangeType type, EntityPersister persister, Object id, Object entity,
+                         Object[] oldState, Object[] state) {
+        if (!requiresPostCommitHandling(persister)) {
+            return;
+        }
+        publisher.publishEvent(EntityChangedEvent.of(type, persister.getMappedClass(), id, entity,
+                persister.getPropertyNames(), oldState, state));
+    }
+
+    // 롤백된 변경은 DB에 반영되지 않았으므로 알릴 것이 없다
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /**
+     * 이벤트를 받는 쪽(캐시, 읽기 모델, 통계)은 회원과 팀 변경만 본다
+     * 다른 엔티티까지 post-commit 처리를 요구하면 하이버네이트가 커밋 때까지 모든 action을 들고 있게 된다.
+     */
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return PUBLISHED_TYPES.contains(persister.getMappedClass());
+    }
+}
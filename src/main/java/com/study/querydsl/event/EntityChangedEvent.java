@@ -0,0 +1,70 @@
+package com.study.querydsl.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * 엔티티 변경이 커밋된 후 발행되는 스프링 이벤트
+ * 캐시나 집계처럼 DB의 사본을 들고 있는 컴포넌트들이 @EventListener로 받아서 갱신/무효화한다.
+ *
+ * BULK는 벌크 연산(update/delete 쿼리)처럼 어떤 row가 바뀌었는지 알 수 없는 변경이다.
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않아 하이버네이트 이벤트가 발생하지 않으므로
+ * 벌크 연산을 실행하는 쪽에서 EntityChangeEventPublisher.publishBulkChange()로 직접 알려야 한다.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class EntityChangedEvent {
+
+    public enum ChangeType {
+        INSERTED, UPDATED, DELETED, BULK
+    }
+
+    private final ChangeType type;
+    private final Class<?> entityType;
+    private final Object id;             // BULK이면 null
+    private final Object entity;         // BULK이면 null
+    private final String[] propertyNames;
+    private final Object[] oldState;     // INSERTED이면 null, UPDATED라도 스냅샷이 없으면 null일 수 있다
+    private final Object[] state;        // DELETED이면 null
+
+    static EntityChangedEvent of(ChangeType type, Class<?> entityType, Object id, Object entity,
+                                 String[] propertyNames, Object[] oldState, Object[] state) {
+        return new EntityChangedEvent(type, entityType, id, entity, propertyNames, oldState, state);
+    }
+
+    static EntityChangedEvent bulk(Class<?> entityType) {
+        return new EntityChangedEvent(ChangeType.BULK, entityType, null, null, new String[0], null, null);
+    }
+
+    public boolean isAbout(Class<?> type) {
+        return type.isAssignableFrom(entityType);
+    }
+
+    public boolean isBulk() {
+        return type == ChangeType.BULK;
+    }
+
+    public Object previousValue(String propertyName) {
+        return valueOf(oldState, propertyName);
+    }
+
+    public Object currentValue(String propertyName) {
+        return valueOf(state, propertyName);
+    }
+
+    private Object valueOf(Object[] values, String propertyName) {
+        if (values == null) {
+            return null;
+        }
+        int index = Arrays.asList(propertyNames).indexOf(propertyName);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChangedEvent(" + type + ", " + entityType.getSimpleName() + ", id=" + id + ")";
+    }
+}
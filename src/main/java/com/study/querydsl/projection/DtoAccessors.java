@@ -0,0 +1,219 @@
+package com.study.querydsl.projection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * DTO 클래스별로 생성자/setter/필드 접근 함수를 한 번만 만들어서 보관한다
+ *
+ * 리플렉션은 접근 함수를 만들 때(클래스당 한 번)만 사용하고,
+ * 생성자/setter는 LambdaMetafactory로 만든 람다(Supplier, BiConsumer)로, 필드와 인자가 있는 생성자는 MethodHandle로 호출한다.
+ */
+final class DtoAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<DtoAccessors> CACHE = new ClassValue<>() {
+        @Override
+        protected DtoAccessors computeValue(Class<?> type) {
+            return new DtoAccessors(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+    private final Map<String, BiConsumer<Object, Object>> fieldSetters = new ConcurrentHashMap<>();
+    private Supplier<Object> noArgsConstructor;
+
+    private DtoAccessors(Class<?> type) {
+        this.type = type;
+    }
+
+    static DtoAccessors of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    synchronized Supplier<Object> noArgsConstructor() {
+        if (noArgsConstructor == null) {
+            noArgsConstructor = createNoArgsConstructor();
+        }
+        return noArgsConstructor;
+    }
+
+    BiConsumer<Object, Object> setter(String property) {
+        return setters.computeIfAbsent(property, this::createSetter);
+    }
+
+    BiConsumer<Object, Object> fieldSetter(String property) {
+        return fieldSetters.computeIfAbsent(property, this::createFieldSetter);
+    }
+
+    /**
+     * 인자 타입이 argTypes와 호환되는 public 생성자를 호출하는 함수
+     * 기본 타입 파라미터에 null이 들어오면 기본값(0, false)으로 바꿔서 넘긴다.
+     */
+    <T> Function<Object[], T> constructor(Class<?>[] argTypes) {
+        Constructor<?> constructor = findConstructor(argTypes);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] defaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            defaults[i] = defaultValue(parameterTypes[i]);
+        }
+
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(parameterTypes.length))
+                    .asSpreader(Object[].class, parameterTypes.length);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + "의 생성자에 접근할 수 없습니다", e);
+        }
+
+        return row -> {
+            Object[] args = row;
+            for (int i = 0; i < defaults.length; i++) {
+                if (row[i] == null && defaults[i] != null) {
+                    if (args == row) {
+                        args = row.clone();
+                    }
+                    args[i] = defaults[i];
+                }
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) (Object) handle.invokeExact(args);
+                return instance;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<Object> createNoArgsConstructor() {
+        try {
+            MethodHandle constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + "에 public 기본 생성자가 없습니다", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BiConsumer<Object, Object> createSetter(String property) {
+        Method method = findSetter(property);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    LOOKUP.unreflect(method),
+                    MethodType.methodType(void.class, type, wrap(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(method + "에 접근할 수 없습니다", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BiConsumer<Object, Object> createFieldSetter(String property) {
+        Field field = findField(property);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP)
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(field + "에 접근할 수 없습니다", e);
+        }
+
+        return (target, value) -> {
+            try {
+                handle.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private Method findSetter(String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1
+                    && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + "에 " + name + "(..) 메서드가 없습니다");
+    }
+
+    private Field findField(String property) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(property);
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException ignored) {
+                // 상위 클래스에서 찾는다
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + "에 " + property + " 필드가 없습니다");
+    }
+
+    private Constructor<?> findConstructor(Class<?>[] argTypes) {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != argTypes.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length && matches; i++) {
+                matches = wrap(parameterTypes[i]).isAssignableFrom(wrap(argTypes[i]));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + "에 인자 타입이 맞는 public 생성자가 없습니다");
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        return 0d;
+    }
+}
@@ -0,0 +1,50 @@
+package com.study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 미리 생성해둔 row -> DTO 변환 함수를 사용하는 QueryDSL 프로젝션
+ * Projections.bean/fields/constructor와 같은 역할이지만 row마다 리플렉션을 호출하지 않는다.
+ */
+public class DtoProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final Function<Object[], T> mapper;
+
+    DtoProjection(Class<? extends T> type, List<Expression<?>> args, Function<Object[], T> mapper) {
+        super(type);
+        this.args = args;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... row) {
+        return mapper.apply(row);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DtoProjection<?> other)) {
+            return false;
+        }
+        return getType().equals(other.getType()) && args.equals(other.args);
+    }
+}
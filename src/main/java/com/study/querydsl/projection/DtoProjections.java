@@ -0,0 +1,94 @@
+package com.study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean/fields/constructor를 대신하는, row마다 리플렉션을 쓰지 않는 DTO 프로젝션
+ *
+ * 사용법은 Projections와 같다. 별칭(member.name.as("username"))과
+ * ExpressionUtils.as(JPAExpressions.select(...), "age") 같은 서브쿼리 별칭도 그대로 쓸 수 있다.
+ * <pre>
+ * queryFactory.select(DtoProjections.fields(UserDto.class, member.name, member.age))...
+ * </pre>
+ */
+public final class DtoProjections {
+
+    private DtoProjections() {
+    }
+
+    /**
+     * 기본 생성자로 만들고 setter로 값을 넣는다 (Projections.bean)
+     */
+    public static <T> DtoProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        DtoAccessors accessors = DtoAccessors.of(type);
+        List<Expression<?>> args = List.of(exprs);
+        BiConsumer<Object, Object>[] setters = propertyAccessors(args, accessors::setter);
+        return new DtoProjection<>(type, args, populate(accessors.noArgsConstructor(), setters));
+    }
+
+    /**
+     * 기본 생성자로 만들고 필드에 바로 값을 넣는다 (Projections.fields)
+     */
+    public static <T> DtoProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        DtoAccessors accessors = DtoAccessors.of(type);
+        List<Expression<?>> args = List.of(exprs);
+        BiConsumer<Object, Object>[] setters = propertyAccessors(args, accessors::fieldSetter);
+        return new DtoProjection<>(type, args, populate(accessors.noArgsConstructor(), setters));
+    }
+
+    /**
+     * 표현식 순서대로 생성자 인자로 넘긴다 (Projections.constructor, @QueryProjection)
+     */
+    public static <T> DtoProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        Class<?>[] argTypes = new Class<?>[exprs.length];
+        for (int i = 0; i < exprs.length; i++) {
+            argTypes[i] = exprs[i].getType();
+        }
+        return new DtoProjection<>(type, List.of(exprs), DtoAccessors.of(type).constructor(argTypes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object>[] propertyAccessors(
+            List<Expression<?>> args, Function<String, BiConsumer<Object, Object>> accessor) {
+        BiConsumer<Object, Object>[] setters = new BiConsumer[args.size()];
+        for (int i = 0; i < args.size(); i++) {
+            setters[i] = accessor.apply(propertyName(args.get(i)));
+        }
+        return setters;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> populate(
+            Supplier<Object> constructor, BiConsumer<Object, Object>[] setters) {
+        return row -> {
+            Object instance = constructor.get();
+            for (int i = 0; i < setters.length; i++) {
+                if (row[i] != null) { // Projections.bean과 같이 null은 넣지 않는다
+                    setters[i].accept(instance, row[i]);
+                }
+            }
+            return (T) instance;
+        };
+    }
+
+    /**
+     * 별칭이 있으면 별칭, 없으면 경로의 마지막 이름(member.name -> name)
+     */
+    static String propertyName(Expression<?> expr) {
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return ((Path<?>) operation.getArg(1)).getMetadata().getName();
+        }
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        throw new IllegalArgumentException("프로퍼티 이름을 알 수 없는 표현식입니다. as()로 별칭을 지정하세요: " + expr);
+    }
+}
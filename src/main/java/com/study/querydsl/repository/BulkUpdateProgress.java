@@ -0,0 +1,18 @@
+package com.study.querydsl.repository;
+
+/**
+ * 벌크 update/delete 진행 상황. 청크 하나가 커밋될 때마다 전달된다
+ *
+ * @param chunk        몇 번째 청크인지(1부터)
+ * @param fromId       이 청크의 member.id 범위(포함)
+ * @param toId         이 청크의 member.id 범위(포함)
+ * @param updated      이 청크에서 바뀐(지운) row 수
+ * @param totalUpdated 지금까지 바뀐(지운) row 수
+ * @param lastId       마지막 청크의 toId
+ */
+public record BulkUpdateProgress(int chunk, long fromId, long toId, long updated, long totalUpdated, long lastId) {
+
+    public boolean isLast() {
+        return toId >= lastId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.config.ConcurrentCountProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * count 쿼리를 별도 스레드, 별도 읽기 전용 트랜잭션(= 별도 커넥션)에서 실행한다
+ * 스레드 수와 큐 크기가 제한된 전용 풀을 사용한다.
+ */
+@Component
+public class ConcurrentCountExecutor {
+
+    private final boolean enabled;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ConcurrentCountExecutor(ConcurrentCountProperties properties, PlatformTransactionManager transactionManager) {
+        this.enabled = properties.isEnabled();
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("member-count-");
+        executor.initialize();
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return 비활성화 상태이거나 풀이 가득 차서 실행할 수 없으면 null (호출한 쪽에서 직접 실행)
+     */
+    public Future<Long> submit(Supplier<Long> countQuery) {
+        if (!enabled) {
+            return null;
+        }
+
+        try {
+            return executor.submit(() -> readOnlyTransaction.execute(status -> countQuery.get()));
+        } catch (TaskRejectedException e) {
+            return null;
+        }
+    }
+
+    public Long await(Future<Long> pendingCount) {
+        try {
+            return pendingCount.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("count 쿼리를 기다리는 중 인터럽트되었습니다", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("count 쿼리 실행 실패", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.config.BatchLoaderProperties;
+import com.study.querydsl.entity.Member;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * 한 요청 안에서 id로 회원을 찾는 호출들을 모아서 in (...) 쿼리 하나로 조회한다 (DataLoader 방식)
+ *
+ * load(id)는 바로 조회하지 않고 결과를 받을 CompletableFuture만 돌려준다.
+ * 모인 id는 dispatch()를 부르거나 max-batch-size만큼 모이면 한꺼번에 조회한다. 요청이 끝날 때까지 남은 조회는 취소된다.
+ * 같은 요청에서 같은 id를 다시 찾으면 다시 조회하지 않고 앞의 결과를 돌려준다.
+ *
+ * in 절의 파라미터 수는 hibernate.query.in_clause_parameter_padding으로 2의 거듭제곱에 맞춰지므로
+ * 묶음 크기가 매번 달라도 SQL 종류는 몇 개 되지 않는다.
+ *
+ * 아직 이 로더를 쓰는 엔드포인트는 없다. 요청 안에서 id로 회원을 여러 번 찾는 컨트롤러나 서비스가 주입받아 쓴다.
+ */
+@Component
+@RequestScope
+public class MemberBatchLoader {
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberQueryMetrics metrics;
+    private final int maxBatchSize;
+
+    private final Map<Long, CompletableFuture<Optional<Member>>> loaded = new HashMap<>();
+    private final Map<Long, CompletableFuture<Optional<Member>>> pending = new LinkedHashMap<>();
+
+    public MemberBatchLoader(JPAQueryFactory queryFactory, MemberQueryMetrics metrics, BatchLoaderProperties properties) {
+        this.queryFactory = queryFactory;
+        this.metrics = metrics;
+        this.maxBatchSize = properties.getMaxBatchSize();
+    }
+
+    /**
+     * id 조회를 예약한다. 결과는 dispatch() 이후에 채워진다
+     */
+    public synchronized CompletableFuture<Optional<Member>> load(Long id) {
+        CompletableFuture<Optional<Member>> future = loaded.get(id);
+        if (future == null) {
+            future = new CompletableFuture<>();
+            loaded.put(id, future);
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                dispatch();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 여러 id를 한 번에 조회해서 ids 순서대로 돌려준다. 없는 id 자리는 Optional.empty()
+     */
+    public synchronized List<Optional<Member>> loadMany(Collection<Long> ids) {
+        List<CompletableFuture<Optional<Member>>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futures.add(load(id));
+        }
+        dispatch();
+
+        List<Optional<Member>> members = new ArrayList<>(futures.size());
+        for (CompletableFuture<Optional<Member>> future : futures) {
+            members.add(future.join());
+        }
+        return members;
+    }
+
+    /**
+     * 모인 id를 max-batch-size씩 나눠서 조회하고 기다리는 future를 채운다
+     */
+    public synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, CompletableFuture<Optional<Member>>> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + maxBatchSize, ids.size()));
+            try {
+                Map<Long, Member> found = new HashMap<>();
+                for (Member m : fetch(chunk)) {
+                    found.put(m.getId(), m);
+                }
+                chunk.forEach(id -> batch.get(id).complete(Optional.ofNullable(found.get(id))));
+            } catch (RuntimeException e) {
+                chunk.forEach(id -> {
+                    loaded.remove(id); // 실패한 id는 다음에 다시 조회할 수 있도록
+                    batch.get(id).completeExceptionally(e);
+                });
+            }
+        }
+    }
+
+    /**
+     * 요청이 끝날 때 dispatch 하지 않은 조회가 남아 있으면 취소해서 기다리는 쪽이 멈추지 않게 한다
+     * 응답이 나간 뒤에는 결과를 쓸 곳이 없고, 요청의 트랜잭션도 끝났으므로 조회하지 않는다.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        pending.values().forEach(future -> future.cancel(false));
+        pending.clear();
+    }
+
+    private List<Member> fetch(List<Long> ids) {
+        return metrics.content("MemberBatchLoader.dispatch", 0, () -> queryFactory
+                .selectFrom(member)
+                .where(member.id.in(ids))
+                .fetch());
+    }
+}
@@ -0,0 +1,70 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import com.study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * bulkUpdateByCondition에서 바꿀 컬럼과 값
+ *
+ * new MemberBulkUpdate()
+ *         .set(member.name, "비회원")
+ *         .set(member.age, member.age.add(1));
+ */
+public class MemberBulkUpdate {
+
+    private final List<Assignment<?>> assignments = new ArrayList<>();
+
+    public <T> MemberBulkUpdate set(Path<T> path, T value) {
+        assignments.add(new Assignment<>(path, value, null));
+        if (member.name.equals(path)) {
+            assignments.add(new Assignment<>(member.normalizedName, Member.normalizeName((String) value), null));
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> MemberBulkUpdate set(Path<T> path, Expression<? extends T> expression) {
+        assignments.add(new Assignment<>(path, null, expression));
+        // 벌크 update는 엔티티 콜백(@PreUpdate)을 거치지 않으므로 소문자 이름도 함께 바꾼다
+        if (member.name.equals(path)) {
+            assignments.add(new Assignment<>(member.normalizedName, null,
+                    Expressions.stringOperation(Ops.LOWER, (Expression<String>) expression)));
+        }
+        return this;
+    }
+
+    boolean isEmpty() {
+        return assignments.isEmpty();
+    }
+
+    JPAUpdateClause applyTo(JPAUpdateClause update) {
+        assignments.forEach(assignment -> assignment.applyTo(update));
+        return update;
+    }
+
+    /**
+     * 컬럼 하나에 넣을 값 또는 식
+     * set(List, List)는 값을 모두 상수(바인드 파라미터)로 감싸므로, 식이 SQL에 그대로 들어가도록 타입을 지켜서 하나씩 set 한다
+     */
+    private record Assignment<T>(Path<T> path, T value, Expression<? extends T> expression) {
+
+        void applyTo(JPAUpdateClause update) {
+            if (expression != null) {
+                update.set(path, expression);
+            } else if (value != null) {
+                update.set(path, value);
+            } else {
+                update.setNull(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.config.BulkUpdateProperties;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.event.EntityChangeEventPublisher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * member.id 범위를 청크로 나눠서 청크마다 별도 트랜잭션으로 update/delete 한다
+ * 청크는 조건에 맞는 다음 id부터 시작하므로, 조건에 맞는 row가 드문드문 있어도 빈 범위를 하나씩 지나가지 않는다.
+ *
+ * 테이블 전체를 update 문 하나로 바꾸면 끝날 때까지 모든 row의 락을 잡고 있고 undo도 한 번에 쌓인다.
+ * 청크마다 커밋하므로 락을 잡는 시간과 undo 크기가 chunk-size 범위로 제한된다.
+ * 대신 전체가 하나의 트랜잭션이 아니므로 중간에 실패하면 앞의 청크는 이미 반영되어 있다.
+ *
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 호출한 쪽의 영속성 컨텍스트(OSIV, 읽기 전용 트랜잭션)에
+ * 남아있는 member 중 청크 범위에 있는 것만 detach해서 다음 조회 때 DB에서 다시 읽게 한다.
+ * 2차 캐시(member region, team.members 컬렉션)는 하이버네이트가 벌크 연산 때 비운다.
+ */
+@Slf4j
+@Component
+public class MemberBulkUpdater {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final EntityChangeEventPublisher eventPublisher;
+    private final BulkUpdateProperties properties;
+    private final TransactionTemplate chunkTransaction;
+
+    public MemberBulkUpdater(JPAQueryFactory queryFactory, EntityManagerFactory emf,
+                             EntityChangeEventPublisher eventPublisher, BulkUpdateProperties properties,
+                             PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.emf = emf;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param where 검색조건. id 범위 조건은 청크마다 더해진다
+     * @return 바뀐 row 수
+     */
+    public long update(Predicate where, MemberBulkUpdate updates, Consumer<BulkUpdateProgress> progressListener) {
+        if (updates.isEmpty()) {
+            throw new IllegalArgumentException("바꿀 컬럼이 없습니다");
+        }
+        // 청크마다 바뀐 row는 서로 겹치지 않으므로, 조건에 쓰인 컬럼을 바꿔도 같은 row를 두 번 바꾸지 않는다
+        return execute("update", where, chunkWhere -> updates.applyTo(queryFactory.update(member))
+                .where(chunkWhere)
+                .execute(), progressListener);
+    }
+
+    /**
+     * @param where 검색조건. 조건 없이 전체 회원을 지울 수는 없다
+     * @return 지운 row 수
+     */
+    public long delete(Predicate where, Consumer<BulkUpdateProgress> progressListener) {
+        if (where == null) {
+            throw new IllegalArgumentException("조건 없이 전체 회원을 지울 수 없습니다");
+        }
+        return execute("delete", where, chunkWhere -> queryFactory.delete(member)
+                .where(chunkWhere)
+                .execute(), progressListener);
+    }
+
+    private long execute(String operation, Predicate where, Function<Predicate, Long> statement,
+                         Consumer<BulkUpdateProgress> progressListener) {
+        // 바깥 트랜잭션이 잡고 있는 row 락을 청크 트랜잭션이 기다리게 되므로 막는다
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("벌크 " + operation + "는 청크마다 커밋하므로 쓰기 트랜잭션 안에서 호출할 수 없습니다");
+        }
+
+        Tuple range = chunkTransaction.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(where)
+                .fetchOne());
+        if (range == null || range.get(member.id.min()) == null) {
+            return 0;
+        }
+
+        long lastId = range.get(member.id.max());
+        EntityManager callerEntityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+
+        long totalUpdated = 0;
+        int chunk = 0;
+        try {
+            Long from = range.get(member.id.min());
+            while (from != null) {
+                long fromId = from;
+                long toId = Math.min(fromId + properties.getChunkSize() - 1, lastId);
+
+                Long updated = chunkTransaction.execute(status ->
+                        statement.apply(ExpressionUtils.allOf(where, member.id.between(fromId, toId))));
+                evict(callerEntityManager, fromId, toId);
+
+                totalUpdated += updated;
+                BulkUpdateProgress progress = new BulkUpdateProgress(++chunk, fromId, toId, updated, totalUpdated, lastId);
+                log.debug("member bulk {} chunk {} [{}, {}] {} rows (total {})", operation, chunk, fromId, toId, updated, totalUpdated);
+                progressListener.accept(progress);
+
+                from = toId < lastId ? nextId(where, toId, lastId) : null;
+            }
+        } finally {
+            // 청크마다 알리면 캐시, 읽기 모델, 통계가 반쯤 바뀐 데이터로 청크 수만큼 다시 만들어진다
+            // 중간에 실패해도 앞서 커밋한 청크는 남아 있으므로 한 번만 알린다
+            if (totalUpdated > 0) {
+                eventPublisher.publishBulkChange(Member.class);
+            }
+        }
+
+        log.info("member bulk {}: {} rows in {} chunks", operation, totalUpdated, chunk);
+        return totalUpdated;
+    }
+
+    /**
+     * 다음 청크는 afterId 다음의 조건에 맞는 id부터 시작한다. 조건에 맞는 row가 없는 id 범위는 건너뛴다
+     */
+    private Long nextId(Predicate where, long afterId, long lastId) {
+        return chunkTransaction.execute(status -> queryFactory
+                .select(member.id.min())
+                .from(member)
+                .where(where, member.id.gt(afterId), member.id.loe(lastId))
+                .fetchOne());
+    }
+
+    private void evict(EntityManager callerEntityManager, long fromId, long toId) {
+        if (callerEntityManager == null || !callerEntityManager.isOpen()) {
+            return;
+        }
+
+        SessionImplementor session = callerEntityManager.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member && entry.getValue().getId() instanceof Long id
+                    && id >= fromId && id <= toId) {
+                session.detach(entry.getKey());
+            }
+        }
+    }
+}
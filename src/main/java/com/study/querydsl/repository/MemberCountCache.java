@@ -0,0 +1,80 @@
+package com.study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.study.querydsl.config.MemberCountCacheProperties;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 검색조건별 전체 개수 캐시
+ * 페이지를 넘길 때마다 같은 count 쿼리를 다시 실행하지 않도록, 정규화한 검색조건을 키로 count 결과를 보관한다.
+ * member/team이 바뀌면(커밋된 후) 전부 무효화하고, 그 외의 변경은 TTL이 지나면 반영된다.
+ *
+ * hit/miss는 cache.gets{cache=member.count} 메트릭으로 확인할 수 있다.
+ */
+@Component
+public class MemberCountCache {
+
+    static final String CACHE_NAME = "member.count";
+
+    private final boolean enabled;
+    private final Cache<MemberSearchCondition, Long> cache;
+
+    public MemberCountCache(MemberCountCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Long get(MemberSearchCondition condition, Supplier<Long> countQuery) {
+        if (!cacheable()) {
+            return countQuery.get();
+        }
+        return cache.get(condition.normalize(), key -> countQuery.get());
+    }
+
+    public Long getIfPresent(MemberSearchCondition condition) {
+        return cacheable() ? cache.getIfPresent(condition.normalize()) : null;
+    }
+
+    public void put(MemberSearchCondition condition, Long count) {
+        if (cacheable() && count != null) {
+            cache.put(condition.normalize(), count);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Member.class) || event.isAbout(Team.class)) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 count에 섞일 수 있고,
+     * 롤백되면 무효화 이벤트도 발생하지 않으므로 캐시를 사용하지 않는다
+     */
+    private boolean cacheable() {
+        return enabled && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+}
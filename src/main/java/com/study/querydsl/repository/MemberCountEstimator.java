@@ -0,0 +1,130 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.config.ApproximateCountProperties;
+import com.study.querydsl.dto.ApproximateCount;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * 검색조건에 맞는 회원 수를 member.id 구간 표본으로 추정한다
+ *
+ * 전체 row 수(count(*)는 H2가 테이블 통계로 바로 돌려준다)와 id 범위를 구한 뒤,
+ * id 범위를 windows개로 나눠 구간마다 임의의 위치에서 sample-size / windows개 정도의 id 구간을 PK 인덱스로 읽는다.
+ * 구간 안의 row 수(n)와 조건에 맞는 row 수(y)로 비율을 추정하고 전체 row 수를 곱한다.
+ *
+ * 오차 범위는 구간을 표본 단위로 보는 비율 추정량의 분산으로 계산한 95% 신뢰구간이다.
+ * id 순서와 조건 사이에 상관이 있어도(같은 팀 회원이 연속된 id로 들어간 경우 등) 구간별 차이가 분산에 반영된다.
+ */
+@Component
+public class MemberCountEstimator {
+
+    private static final double Z_95 = 1.96;
+
+    private final JPAQueryFactory queryFactory;
+    private final ApproximateCountProperties properties;
+
+    public MemberCountEstimator(JPAQueryFactory queryFactory, ApproximateCountProperties properties) {
+        this.queryFactory = queryFactory;
+        this.properties = properties;
+    }
+
+    /**
+     * @param where 검색조건. 조인 없이 member 컬럼만 사용해야 한다
+     */
+    public ApproximateCount estimate(Predicate where) {
+        if (where == null) {
+            return ApproximateCount.exact(count(null));
+        }
+
+        long total = count(null);
+        int windows = Math.max(1, properties.getWindows());
+        if (total <= properties.getSampleSize() || total < windows * 2L) {
+            return ApproximateCount.exact(count(where));
+        }
+
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne();
+        long minId = range.get(member.id.min());
+        long maxId = range.get(member.id.max());
+
+        // 구간 하나에 sample-size / windows개의 row가 들어가도록 id 폭을 잡는다 (id가 고르게 분포한다고 보고)
+        double density = (double) total / (maxId - minId + 1);
+        long width = Math.max(1, Math.round(properties.getSampleSize() / (double) windows / density));
+        long stratum = (maxId - minId + 1) / windows;
+        if (width >= stratum) {
+            return ApproximateCount.exact(count(where));
+        }
+
+        NumberExpression<Long> matched = new CaseBuilder().when(where).then(1L).otherwise(0L).sum();
+        long[] rows = new long[windows];
+        long[] hits = new long[windows];
+        for (int i = 0; i < windows; i++) {
+            long from = minId + i * stratum + ThreadLocalRandom.current().nextLong(stratum - width + 1);
+            Tuple sample = queryFactory
+                    .select(member.count(), matched)
+                    .from(member)
+                    .where(member.id.between(from, from + width - 1))
+                    .fetchOne();
+            rows[i] = sample.get(member.count());
+            Long hit = sample.get(matched);
+            hits[i] = hit == null ? 0 : hit;
+        }
+        if (Arrays.stream(rows).sum() == 0) {
+            return ApproximateCount.exact(count(where)); // id 사이가 비어 있어서 표본이 없으면 정확히 센다
+        }
+        return ratioEstimate(total, rows, hits);
+    }
+
+    /**
+     * 구간 i에서 rows[i]개 중 hits[i]개가 조건에 맞았을 때 전체 total개 중 맞는 수의 추정치
+     */
+    static ApproximateCount ratioEstimate(long total, long[] rows, long[] hits) {
+        int k = rows.length;
+        long sampled = 0;
+        long matched = 0;
+        for (int i = 0; i < k; i++) {
+            sampled += rows[i];
+            matched += hits[i];
+        }
+        if (sampled == 0) {
+            return new ApproximateCount(0, total, false); // 표본이 모두 비어 있으면 아무것도 알 수 없다
+        }
+
+        double ratio = (double) matched / sampled;
+        double meanRows = (double) sampled / k;
+        double squares = 0;
+        for (int i = 0; i < k; i++) {
+            double residual = hits[i] - ratio * rows[i];
+            squares += residual * residual;
+        }
+        double finiteCorrection = Math.max(0, 1 - (double) sampled / total);
+        // 구간이 하나면 구간 사이의 차이를 알 수 없으므로 row 단위 단순 임의 표본으로 본다
+        double variance = k > 1
+                ? finiteCorrection * squares / (k - 1) / (k * meanRows * meanRows)
+                : finiteCorrection * ratio * (1 - ratio) / sampled;
+
+        long estimate = Math.round(ratio * total);
+        long errorBound = Math.round(Z_95 * Math.sqrt(variance) * total);
+        return new ApproximateCount(estimate, Math.min(errorBound, total), false);
+    }
+
+    private long count(Predicate where) {
+        Long count = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(where)
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+}
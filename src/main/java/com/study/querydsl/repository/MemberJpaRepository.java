@@ -1,22 +1,26 @@
 package com.study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.config.StreamProperties;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.dto.QMemberTeamDTO;
 import com.study.querydsl.entity.Member;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.study.querydsl.entity.QMember.*;
 import static com.study.querydsl.entity.QTeam.team;
-import static io.micrometer.common.util.StringUtils.isEmpty;
 
 // 순수 JPA레포지토리
 @Repository
@@ -25,6 +29,11 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory; // QueryDSL을 사용하려면 JPAQueryFactory객체가 필요
+    private final StreamProperties streamProperties;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final MemberQueryMetrics metrics;
+    private final MemberReadModel memberReadModel;
+    private final MemberSearchCoalescer searchCoalescer;
 
     @Transactional
     public void save(Member member) {
@@ -33,66 +42,111 @@ public class MemberJpaRepository {
 
     @Transactional(readOnly = true)
     public Optional<Member> findById(Long id) {
-        Member member = em.find(Member.class, id);
+        Member member = metrics.time("MemberJpaRepository.findById", 0, () -> em.find(Member.class, id));
         return Optional.ofNullable(member);
     }
 
     @Transactional(readOnly = true)
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
-                .getResultList();
+        return metrics.content("MemberJpaRepository.findAll", 0, () -> em.createQuery("select m from Member m", Member.class)
+                .getResultList());
     }
 
     @Transactional(readOnly = true)
     public List<Member> findAll_queryDSL() {
-        return queryFactory
+        return metrics.content("MemberJpaRepository.findAll_queryDSL", 0, () -> queryFactory
                 .selectFrom(member)
-                .fetch();
+                .fetch());
+    }
+
+    /**
+     * 팀을 함께 화면에 보여줄 때 사용. Member.withTeam 엔티티 그래프로 팀을 join fetch 한다
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAllWithTeam() {
+        return metrics.content("MemberJpaRepository.findAllWithTeam", 0, () -> em
+                .createQuery("select m from Member m", Member.class)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, em.getEntityGraph(Member.WITH_TEAM))
+                .getResultList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Member> findAllWithTeam_queryDSL() {
+        return metrics.content("MemberJpaRepository.findAllWithTeam_queryDSL", 0, () -> queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .fetch());
     }
 
     @Transactional(readOnly = true)
     public List<Member> findByName(String name) {
-        return em.createQuery("select m from Member m where m.name=:name", Member.class)
+        return metrics.content("MemberJpaRepository.findByName", MemberSearchShape.USERNAME, () -> em
+                .createQuery("select m from Member m where m.name=:name", Member.class)
                 .setParameter("name", name)
-                .getResultList();
+                .getResultList());
     }
 
     @Transactional(readOnly = true)
     public List<Member> findByName_queryDSL(String name) {
-        return queryFactory
+        return metrics.content("MemberJpaRepository.findByName_queryDSL", MemberSearchShape.USERNAME, () -> queryFactory
                 .selectFrom(member)
                 .where(member.name.eq(name))
-                .fetch();
+                .fetch());
     }
 
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        member.id,
-                        member.name,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+        MemberSearchCondition normalized = condition.normalize();
+        int shape = MemberSearchShape.of(normalized);
+        return searchCoalescer.execute("MemberJpaRepository.search", normalized, null,
+                () -> memberReadModel.search(normalized, shape,
+                        () -> metrics.content("MemberJpaRepository.search", shape, () -> queryTemplates
+                                .content(normalized, shape)
+                                .getResultList())));
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.name.eq(username);
-    }
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    /**
+     * findAll()의 스트림 버전
+     * 호출하는 쪽의 트랜잭션 안에서 사용하고, 다 읽으면 close해야 한다(try-with-resources)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<Member> streamAll() {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member);
+
+        return ScrollableStreams.stream(em, query.createQuery(), null,
+                streamProperties.getFetchSize(), streamProperties.getClearInterval());
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
+    /**
+     * search()의 스트림 버전
+     * 호출하는 쪽의 트랜잭션 안에서 사용하고, 다 읽으면 close해야 한다(try-with-resources)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<MemberTeamDTO> streamSearch(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        TypedQuery<MemberTeamDTO> query = queryTemplates.content(normalized, MemberSearchShape.of(normalized));
+
+        return ScrollableStreams.stream(em, query, null,
+                streamProperties.getFetchSize(), 0); // DTO는 영속성 컨텍스트에 남지 않는다
     }
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+
+    /**
+     * member.id가 [fromId, toId) 범위인 회원과 팀을 스트림으로 조회한다 (범위를 나눠서 병렬로 내보낼 때 사용)
+     * 호출하는 쪽의 트랜잭션 안에서 사용하고, 다 읽으면 close해야 한다(try-with-resources)
+     * @param ordered false이면 정렬하지 않고 PK 인덱스에서 읽는 순서대로 돌려준다
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<MemberTeamDTO> streamRange(long fromId, long toId, boolean ordered, int fetchSize) {
+        QMemberTeamDTO projection = new QMemberTeamDTO(member.id, member.name, member.age, team.id, team.name);
+        JPAQuery<MemberTeamDTO> query = queryFactory
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.goe(fromId), member.id.lt(toId));
+        if (ordered) {
+            query.orderBy(member.id.asc());
+        }
+
+        return ScrollableStreams.stream(em, query.createQuery(), projection, fetchSize, 0);
     }
 }
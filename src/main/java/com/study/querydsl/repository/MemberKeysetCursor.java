@@ -0,0 +1,69 @@
+package com.study.querydsl.repository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징용 커서
+ * member.id를 기준으로 다음(n) 또는 이전(p) 방향으로 seek한다.
+ * 외부에는 "방향:id"를 base64url로 인코딩한 문자열만 노출한다.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberKeysetCursor {
+
+    private static final String NEXT = "n";
+    private static final String PREV = "p";
+
+    private final boolean backward;
+    private final long memberId;
+
+    static MemberKeysetCursor next(long lastMemberId) {
+        return new MemberKeysetCursor(false, lastMemberId);
+    }
+
+    static MemberKeysetCursor prev(long firstMemberId) {
+        return new MemberKeysetCursor(true, firstMemberId);
+    }
+
+    /**
+     * 클라이언트가 넘긴 커서를 검색 전에 확인할 때 사용한다. 비어있으면 첫 페이지이므로 올바른 커서다
+     */
+    public static boolean isValid(String cursor) {
+        try {
+            decode(cursor);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 커서가 비어있으면 null(첫 페이지)
+     */
+    static MemberKeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length == 2 && (NEXT.equals(parts[0]) || PREV.equals(parts[0]))) {
+                return new MemberKeysetCursor(PREV.equals(parts[0]), Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException e) { // base64 디코딩 실패, NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+        throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+    }
+
+    String encode() {
+        String raw = (backward ? PREV : NEXT) + ":" + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package com.study.querydsl.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 회원 조회 쿼리의 실행 시간과 조회 건수 메트릭
+ *
+ * member.query{method, shape, phase}      쿼리 실행 시간. phase는 content(목록 조회) / count(전체 개수)
+ * member.query.rows{method, shape}        content 쿼리가 돌려준 row 수
+ *
+ * shape는 검색조건 중 어떤 필드가 쿼리에 사용됐는지(MemberSearchShape.describe)로, 필드가 6개이므로 최대 64가지다.
+ * 커넥션을 얻는 데 걸린 시간은 hikaricp.connections.acquire,
+ * Spring Data 레포지토리(MemberRepositoryRepository) 호출 시간은 spring.data.repository.invocations를 보면 된다.
+ */
+@Component
+public class MemberQueryMetrics {
+
+    static final String QUERY_TIMER = "member.query";
+    static final String ROWS_SUMMARY = "member.query.rows";
+
+    static final String CONTENT = "content";
+    static final String COUNT = "count";
+
+    private final MeterRegistry meterRegistry;
+
+    // 호출할 때마다 태그를 만들고 레지스트리에서 찾지 않도록 미터를 보관한다
+    private final ConcurrentMap<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MeterKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public MemberQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 목록 조회 쿼리의 실행 시간과 row 수를 기록한다
+     */
+    public <T> List<T> content(String method, int shape, Supplier<List<T>> query) {
+        List<T> rows = timer(method, shape, CONTENT).record(query);
+        summary(method, shape).record(rows.size());
+        return rows;
+    }
+
+    /**
+     * count 쿼리의 실행 시간을 기록한다
+     */
+    public Long count(String method, int shape, Supplier<Long> query) {
+        return timer(method, shape, COUNT).record(query);
+    }
+
+    /**
+     * 단건 조회처럼 row 수가 의미 없는 쿼리의 실행 시간만 기록한다
+     */
+    public <T> T time(String method, int shape, Supplier<T> query) {
+        return timer(method, shape, CONTENT).record(query);
+    }
+
+    private Timer timer(String method, int shape, String phase) {
+        return timers.computeIfAbsent(new MeterKey(method, shape, phase), key -> Timer.builder(QUERY_TIMER)
+                .description("member query execution time")
+                .tag("method", key.method())
+                .tag("shape", MemberSearchShape.describe(key.shape()))
+                .tag("phase", key.phase())
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary summary(String method, int shape) {
+        return summaries.computeIfAbsent(new MeterKey(method, shape, CONTENT), key -> DistributionSummary.builder(ROWS_SUMMARY)
+                .description("rows returned by member content queries")
+                .baseUnit("rows")
+                .tag("method", key.method())
+                .tag("shape", MemberSearchShape.describe(key.shape()))
+                .register(meterRegistry));
+    }
+
+    private record MeterKey(String method, int shape, String phase) {
+    }
+}
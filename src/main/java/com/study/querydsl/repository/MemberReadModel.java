@@ -0,0 +1,437 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.config.ReadModelProperties;
+import com.study.querydsl.config.StreamProperties;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.study.querydsl.repository.MemberSearchShape.AGE_GOE;
+import static com.study.querydsl.repository.MemberSearchShape.AGE_LOE;
+import static com.study.querydsl.repository.MemberSearchShape.NAME_IGNORE_CASE;
+import static com.study.querydsl.repository.MemberSearchShape.NAME_STARTS_WITH;
+import static com.study.querydsl.repository.MemberSearchShape.TEAM_NAME;
+import static com.study.querydsl.repository.MemberSearchShape.USERNAME;
+import static com.study.querydsl.repository.MemberSearchShape.has;
+
+/**
+ * 회원 검색(member ⋈ team)용 메모리 읽기 모델
+ *
+ * 회원/팀 전체를 메모리에 올려두고 이름, 소문자 이름(정렬), 팀 이름, 나이(정렬) 인덱스로 검색한다.
+ * 커밋된 변경(EntityChangedEvent)을 받아서 row 단위로 갱신하고, 벌크 변경처럼 어떤 row가 바뀌었는지 모르면 다시 읽는다.
+ *
+ * - 아직 다 읽지 못했거나, 쓰기 트랜잭션 안이면(커밋되지 않은 변경은 이벤트가 오지 않는다) DB에서 조회한다.
+ * - verify-sample-rate 비율만큼은 DB에서도 조회해서 비교하고, 다르면 다시 읽는다.
+ *
+ * member.read_model.rows                     메모리에 있는 회원 수
+ * member.read_model.searches{source}         메모리(memory) / DB(database)에서 처리한 검색 수
+ * member.read_model.mismatches               DB와 결과가 달랐던 횟수
+ */
+@Slf4j
+@Component
+public class MemberReadModel {
+
+    private final boolean enabled;
+    private final double verifySampleRate;
+    private final EntityManager em;
+    private final StreamProperties streamProperties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // 다시 읽기와 검증을 실행하는 스레드. 밀리면 검증은 버린다
+    private final ExecutorService worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "member-read-model");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Indexes indexes;          // null이면 아직 읽지 못했다
+    private boolean loading;
+    private boolean loadInvalidated;  // 읽는 동안 벌크 변경이 있었다
+    private final List<EntityChangedEvent> pending = new ArrayList<>(); // 읽는 동안 들어온 변경
+
+    private final Counter memorySearches;
+    private final Counter databaseSearches;
+    private final Counter mismatches;
+
+    public MemberReadModel(ReadModelProperties properties, EntityManager em, StreamProperties streamProperties,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.verifySampleRate = properties.getVerifySampleRate();
+        this.em = em;
+        this.streamProperties = streamProperties;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("member.read_model.rows", this, MemberReadModel::size).register(meterRegistry);
+        this.memorySearches = meterRegistry.counter("member.read_model.searches", "source", "memory");
+        this.databaseSearches = meterRegistry.counter("member.read_model.searches", "source", "database");
+        this.mismatches = meterRegistry.counter("member.read_model.mismatches");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduleLoad();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * @param condition MemberSearchCondition.normalize()된 검색조건
+     * @param shape     condition 중 검색에 사용할 조건들
+     * @param database  같은 검색을 DB에서 하는 쿼리
+     */
+    public List<MemberTeamDTO> search(MemberSearchCondition condition, int shape,
+                                      Supplier<List<MemberTeamDTO>> database) {
+        if (!enabled || inWriteTransaction()) {
+            return database.get();
+        }
+
+        List<MemberTeamDTO> result = query(condition, shape);
+        if (result == null) {
+            scheduleLoad(); // 읽는 중이면 아무것도 하지 않는다
+            databaseSearches.increment();
+            return database.get();
+        }
+
+        memorySearches.increment();
+        if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+            worker.execute(() -> verify(condition, shape, result, database));
+        }
+        return result;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return indexes != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled || !(event.isAbout(Member.class) || event.isAbout(Team.class))) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (event.isBulk()) {
+                indexes = null;
+                loadInvalidated = loading;
+                pending.clear();
+            } else if (loading) {
+                pending.add(event);
+            } else if (indexes != null) {
+                indexes.apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (event.isBulk()) {
+            scheduleLoad();
+        }
+    }
+
+    private List<MemberTeamDTO> query(MemberSearchCondition condition, int shape) {
+        lock.readLock().lock();
+        try {
+            return indexes == null ? null : indexes.search(condition, shape);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void verify(MemberSearchCondition condition, int shape, List<MemberTeamDTO> result,
+                        Supplier<List<MemberTeamDTO>> database) {
+        List<MemberTeamDTO> expected = new ArrayList<>(readOnlyTransaction.execute(status -> database.get()));
+        expected.sort(Indexes.BY_MEMBER_ID);
+        if (!expected.equals(result)) {
+            // 검증하는 사이에 커밋된 변경 때문일 수도 있지만 드물고, 다시 읽으면 맞춰진다
+            mismatches.increment();
+            log.warn("member read model mismatch [{}]: memory {} rows, database {} rows. reloading",
+                    MemberSearchShape.describe(shape), result.size(), expected.size());
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            indexes = null;
+            loadInvalidated = loading;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleLoad();
+    }
+
+    private void scheduleLoad() {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            loadInvalidated = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        worker.submit(this::load);
+    }
+
+    private void load() {
+        Indexes loaded;
+        try {
+            loaded = readOnlyTransaction.execute(status -> read());
+        } catch (RuntimeException e) {
+            log.warn("member read model load failed", e);
+            lock.writeLock().lock();
+            try {
+                loading = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        boolean reload;
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            reload = loadInvalidated;
+            if (!reload) {
+                // 읽는 동안 커밋된 변경을 반영한다. 변경 후 상태로 덮어쓰므로 이미 읽은 변경이어도 괜찮다
+                pending.forEach(loaded::apply);
+                indexes = loaded;
+            }
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (reload) {
+            scheduleLoad();
+        } else {
+            log.info("member read model loaded: {} members", loaded.rows.size());
+        }
+    }
+
+    private Indexes read() {
+        Indexes loaded = new Indexes();
+        em.createQuery("select t.id, t.name from Team t", Object[].class)
+                .getResultList()
+                .forEach(row -> loaded.putTeam((Long) row[0], (String) row[1]));
+
+        try (Stream<Object[]> members = ScrollableStreams.stream(em,
+                em.createQuery("select m.id, m.name, m.age, m.team.id from Member m", Object[].class), null,
+                streamProperties.getFetchSize(), 0)) {
+            members.forEach(row -> loaded.upsert(new Row((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3])));
+        }
+        return loaded;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return indexes == null ? 0 : indexes.rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Row(long memberId, String username, int age, Long teamId) {
+
+        String normalizedName() {
+            return Member.normalizeName(username);
+        }
+    }
+
+    /**
+     * 읽기 모델의 데이터와 인덱스. lock 안에서만 사용한다
+     */
+    private static class Indexes {
+
+        static final Comparator<MemberTeamDTO> BY_MEMBER_ID = Comparator.comparing(MemberTeamDTO::getMemberId);
+
+        final Map<Long, Row> rows = new HashMap<>();
+        final Map<String, Set<Long>> memberIdsByName = new HashMap<>();
+        final NavigableMap<String, Set<Long>> memberIdsByNormalizedName = new TreeMap<>();
+        final Map<Long, Set<Long>> memberIdsByTeamId = new HashMap<>();
+        final NavigableMap<Integer, Set<Long>> memberIdsByAge = new TreeMap<>();
+
+        final Map<Long, String> teamNames = new HashMap<>();
+        final Map<String, Set<Long>> teamIdsByName = new HashMap<>();
+
+        void apply(EntityChangedEvent event) {
+            if (event.isAbout(Member.class)) {
+                Long memberId = (Long) event.getId();
+                if (event.getType() == EntityChangedEvent.ChangeType.DELETED) {
+                    remove(memberId);
+                } else {
+                    Team team = (Team) event.currentValue("team");
+                    upsert(new Row(memberId, (String) event.currentValue("name"), (Integer) event.currentValue("age"),
+                            team == null ? null : team.getId()));
+                }
+            } else {
+                Long teamId = (Long) event.getId();
+                if (event.getType() == EntityChangedEvent.ChangeType.DELETED) {
+                    removeTeam(teamId);
+                } else {
+                    putTeam(teamId, (String) event.currentValue("name"));
+                }
+            }
+        }
+
+        void upsert(Row row) {
+            remove(row.memberId());
+            rows.put(row.memberId(), row);
+            add(memberIdsByName, row.username(), row.memberId());
+            add(memberIdsByNormalizedName, row.normalizedName(), row.memberId());
+            add(memberIdsByTeamId, row.teamId(), row.memberId());
+            add(memberIdsByAge, row.age(), row.memberId());
+        }
+
+        void remove(long memberId) {
+            Row row = rows.remove(memberId);
+            if (row != null) {
+                delete(memberIdsByName, row.username(), memberId);
+                delete(memberIdsByNormalizedName, row.normalizedName(), memberId);
+                delete(memberIdsByTeamId, row.teamId(), memberId);
+                delete(memberIdsByAge, row.age(), memberId);
+            }
+        }
+
+        void putTeam(Long teamId, String name) {
+            removeTeam(teamId);
+            teamNames.put(teamId, name);
+            add(teamIdsByName, name, teamId);
+        }
+
+        void removeTeam(Long teamId) {
+            String name = teamNames.remove(teamId);
+            delete(teamIdsByName, name, teamId);
+        }
+
+        /**
+         * 가장 좁은 인덱스(이름 > 소문자 이름 > 이름 앞부분 > 팀 > 나이 범위)로 후보를 고르고 나머지 조건으로 거른다
+         */
+        List<MemberTeamDTO> search(MemberSearchCondition condition, int shape) {
+            Collection<Long> candidates;
+            if (has(shape, USERNAME)) {
+                candidates = memberIdsByName.getOrDefault(condition.getUsername(), Set.of());
+            } else if (has(shape, NAME_IGNORE_CASE)) {
+                candidates = memberIdsByNormalizedName.getOrDefault(condition.getNameIgnoreCase(), Set.of());
+            } else if (has(shape, NAME_STARTS_WITH)) {
+                String prefix = condition.getNameStartsWith();
+                candidates = new ArrayList<>();
+                memberIdsByNormalizedName.subMap(prefix, true, MemberSearchQueryTemplates.prefixEnd(prefix), false)
+                        .values().forEach(candidates::addAll);
+            } else if (has(shape, TEAM_NAME)) {
+                candidates = new ArrayList<>();
+                for (Long teamId : teamIdsByName.getOrDefault(condition.getTeamName(), Set.of())) {
+                    candidates.addAll(memberIdsByTeamId.getOrDefault(teamId, Set.of()));
+                }
+            } else if (has(shape, AGE_GOE) || has(shape, AGE_LOE)) {
+                NavigableMap<Integer, Set<Long>> ages = memberIdsByAge;
+                if (has(shape, AGE_GOE)) ages = ages.tailMap(condition.getAgeGoe(), true);
+                if (has(shape, AGE_LOE)) ages = ages.headMap(condition.getAgeLoe(), true);
+                candidates = new ArrayList<>();
+                ages.values().forEach(candidates::addAll);
+            } else {
+                candidates = rows.keySet();
+            }
+
+            List<MemberTeamDTO> result = new ArrayList<>();
+            for (Long memberId : candidates) {
+                Row row = rows.get(memberId);
+                if (matches(row, condition, shape)) {
+                    // 호출한 쪽이 바꿔도 읽기 모델에 영향이 없도록 매번 새로 만든다
+                    result.add(new MemberTeamDTO(row.memberId(), row.username(), row.age(), row.teamId(),
+                            row.teamId() == null ? null : teamNames.get(row.teamId())));
+                }
+            }
+            result.sort(BY_MEMBER_ID);
+            return result;
+        }
+
+        private boolean matches(Row row, MemberSearchCondition condition, int shape) {
+            return (!has(shape, USERNAME) || Objects.equals(row.username(), condition.getUsername()))
+                    && (!has(shape, TEAM_NAME) || row.teamId() != null
+                        && Objects.equals(teamNames.get(row.teamId()), condition.getTeamName()))
+                    && (!has(shape, AGE_GOE) || row.age() >= condition.getAgeGoe())
+                    && (!has(shape, AGE_LOE) || row.age() <= condition.getAgeLoe())
+                    && (!has(shape, NAME_STARTS_WITH) || row.normalizedName() != null
+                        && row.normalizedName().startsWith(condition.getNameStartsWith()))
+                    && (!has(shape, NAME_IGNORE_CASE) || Objects.equals(row.normalizedName(), condition.getNameIgnoreCase()));
+        }
+
+        private static <K> void add(Map<K, Set<Long>> index, K key, Long id) {
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+        }
+
+        private static <K> void delete(Map<K, Set<Long>> index, K key, Long id) {
+            if (key == null) {
+                return;
+            }
+            Set<Long> ids = index.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -1,13 +1,56 @@
 package com.study.querydsl.repository;
 
+import com.study.querydsl.dto.ApproximateCount;
+import com.study.querydsl.dto.CursorPage;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDTO> search(MemberSearchCondition condition);
     Page<MemberTeamDTO> searchComplex(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * 전체 개수 없이 다음 페이지가 있는지만 알려주는 페이징 (무한 스크롤)
+     * 한 페이지보다 하나 더 조회해서 hasNext를 정하고 count 쿼리는 실행하지 않는다
+     */
+    Slice<MemberTeamDTO> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * 검색조건에 맞는 회원 수를 표본으로 추정한다. "약 N건"처럼 정확한 값이 필요 없을 때 사용
+     */
+    ApproximateCount approximateCount(MemberSearchCondition condition);
+
+    /**
+     * offset 대신 member.id를 기준으로 seek하는 페이징
+     * @param cursor 이전 응답의 nextCursor/prevCursor, 첫 페이지는 null
+     */
+    CursorPage<MemberTeamDTO> searchKeyset(MemberSearchCondition condition, String cursor, int size);
+
+    /**
+     * 검색조건에 맞는 회원을 member.id 범위 청크로 나눠서 update 한다. 청크마다 별도 트랜잭션으로 커밋
+     * 쓰기 트랜잭션 안에서는 호출할 수 없다.
+     * @return 바뀐 row 수
+     */
+    long bulkUpdateByCondition(MemberSearchCondition condition, MemberBulkUpdate updates);
+
+    /**
+     * @param progressListener 청크가 커밋될 때마다 호출된다
+     */
+    long bulkUpdateByCondition(MemberSearchCondition condition, MemberBulkUpdate updates,
+                               Consumer<BulkUpdateProgress> progressListener);
+
+    /**
+     * 검색조건에 맞는 회원을 bulkUpdateByCondition과 같은 청크로 나눠서 delete 한다
+     * 조건이 없으면 전체 회원을 지우게 되므로 IllegalArgumentException
+     * @return 지운 row 수
+     */
+    long bulkDeleteByCondition(MemberSearchCondition condition);
+
+    long bulkDeleteByCondition(MemberSearchCondition condition, Consumer<BulkUpdateProgress> progressListener);
 }
@@ -1,20 +1,28 @@
 package com.study.querydsl.repository;
 
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.ApproximateCount;
+import com.study.querydsl.dto.CursorPage;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.dto.QMemberTeamDTO;
-import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
-import org.springframework.util.ObjectUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.study.querydsl.entity.QMember.member;
 import static com.study.querydsl.entity.QTeam.team;
@@ -23,39 +31,125 @@ import static com.study.querydsl.entity.QTeam.team;
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final MemberCountCache memberCountCache;
+    private final ConcurrentCountExecutor concurrentCountExecutor;
+    private final MemberQueryMetrics metrics;
+    private final MemberBulkUpdater memberBulkUpdater;
+    private final MemberReadModel memberReadModel;
+    private final MemberSearchCoalescer searchCoalescer;
+    private final MemberCountEstimator memberCountEstimator;
 
     @Override
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        member.id,
-                        member.name,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(memberNameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()))
-                .fetch();
+        MemberSearchCondition normalized = condition.normalize();
+        int shape = MemberSearchShape.of(normalized);
+        return searchCoalescer.execute("MemberRepositoryRepository.search", normalized, null,
+                () -> memberReadModel.search(normalized, shape,
+                        () -> metrics.content("MemberRepositoryRepository.search", shape, () -> queryTemplates
+                                .content(normalized, shape)
+                                .getResultList())));
     }
 
-    private BooleanExpression memberNameEq(String memberName) {
-        return StringUtils.isBlank(memberName) ? null : member.name.eq(memberName);
+    @Override
+    public Page<MemberTeamDTO> searchComplex(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalize();
+        return searchCoalescer.execute("MemberRepositoryRepository.searchComplex", normalized, pageable,
+                () -> searchComplex(normalized, condition, pageable));
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.isBlank(teamName) ? null : team.name.eq(teamName);
+    private Page<MemberTeamDTO> searchComplex(MemberSearchCondition normalized, MemberSearchCondition condition, Pageable pageable) {
+        int shape = MemberSearchShape.of(normalized);
+        Supplier<Long> countQuery = () -> metrics.count("MemberRepositoryRepository.searchComplex", shape,
+                () -> queryTemplates.count(normalized, shape).getSingleResult());
+
+        // count가 캐시에 없으면 컨텐츠 쿼리와 동시에 다른 커넥션에서 미리 실행해둔다
+        // 쓰기 트랜잭션 안에서는 다른 트랜잭션이 커밋되지 않은 변경을 볼 수 없으므로 기존처럼 순서대로 실행
+        Future<Long> pendingCount = !inWriteTransaction() && memberCountCache.getIfPresent(condition) == null
+                ? concurrentCountExecutor.submit(countQuery)
+                : null;
+
+        List<MemberTeamDTO> content;
+        try {
+            content = metrics.content("MemberRepositoryRepository.searchComplex", shape, () -> queryTemplates.content(normalized, shape)
+                    .setFirstResult((int) pageable.getOffset()) // 몇번째 record부터 가져와
+                    .setMaxResults(pageable.getPageSize()) // offset부터 가져오는 최대 개수 == 한 페이지에 보여줄 컨텐츠의 개수
+                    .getResultList());
+        } catch (RuntimeException e) {
+            cancel(pendingCount);
+            throw e;
+        }
+
+        // 마지막 페이지처럼 count가 필요 없으면 supplier가 호출되지 않는다
+        Page<MemberTeamDTO> page = PageableExecutionUtils.getPage(content, pageable,
+                () -> total(condition, countQuery, pendingCount));
+        cancel(pendingCount); // count가 필요 없었다면 결과를 버린다
+        return page;
     }
 
-    private BooleanExpression ageGoe(Integer age) {
-        return ObjectUtils.isEmpty(age) ? null : member.age.goe(age);
+    @Override
+    public Slice<MemberTeamDTO> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalize();
+        int shape = MemberSearchShape.of(normalized);
+        return searchCoalescer.execute("MemberRepositoryRepository.searchSlice", normalized, pageable, () -> {
+            // 다음 페이지 존재 여부를 알기 위해 size + 1개를 조회
+            List<MemberTeamDTO> rows = metrics.content("MemberRepositoryRepository.searchSlice", shape, () -> queryTemplates.content(normalized, shape)
+                    .setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize() + 1)
+                    .getResultList());
+
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            List<MemberTeamDTO> content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+            return new SliceImpl<>(content, pageable, hasNext);
+        });
     }
 
     @Override
-    public Page<MemberTeamDTO> searchComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = queryFactory
+    @Transactional(readOnly = true)
+    public ApproximateCount approximateCount(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        int shape = MemberSearchShape.of(normalized);
+        // 구간 표본마다 조건을 평가하므로 팀 조건도 조인 없이 member.team_id로 거른다
+        Predicate where = queryTemplates.predicate(normalized, shape);
+        return metrics.time("MemberRepositoryRepository.approximateCount", shape, () -> memberCountEstimator.estimate(where));
+    }
+
+    private Long total(MemberSearchCondition condition, Supplier<Long> countQuery, Future<Long> pendingCount) {
+        if (pendingCount == null) {
+            return memberCountCache.get(condition, countQuery);
+        }
+
+        Long count = concurrentCountExecutor.await(pendingCount);
+        memberCountCache.put(condition, count);
+        return count;
+    }
+
+    private void cancel(Future<Long> pendingCount) {
+        if (pendingCount != null) {
+            pendingCount.cancel(true);
+        }
+    }
+
+    private boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MemberTeamDTO> searchKeyset(MemberSearchCondition condition, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다: " + size);
+        }
+
+        MemberSearchCondition normalized = condition.normalize();
+        MemberKeysetCursor keyset = MemberKeysetCursor.decode(cursor);
+        boolean backward = keyset != null && keyset.isBackward();
+
+        // offset으로 앞의 row를 읽고 버리는 대신, PK 인덱스에서 커서 위치로 바로 seek한다
+        // 다음 페이지 존재 여부를 알기 위해 size + 1개를 조회
+        int shape = MemberSearchShape.of(normalized);
+        List<MemberTeamDTO> rows = metrics.content("MemberRepositoryRepository.searchKeyset", shape, () -> queryFactory
                 .select(new QMemberTeamDTO(
                         member.id,
                         member.name,
@@ -64,21 +158,65 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
                         team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(memberNameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()))
-                .offset(pageable.getOffset()) // 몇번째 record부터 가져와
-                .limit(pageable.getPageSize()) // offset부터 가져오는 최대 개수 == 한 페이지에 보여줄 컨텐츠의 개수
-                .fetch();
-
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(memberNameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()));
+                .where(queryTemplates.predicate(normalized, shape), seek(keyset))
+                .orderBy(backward ? member.id.desc() : member.id.asc())
+                .limit(size + 1L)
+                .fetch());
+
+        boolean hasMore = rows.size() > size;
+        List<MemberTeamDTO> content = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (backward) {
+            Collections.reverse(content); // 이전 페이지는 역순으로 읽었으므로 id 오름차순으로 되돌린다
+        }
+
+        if (content.isEmpty()) {
+            return new CursorPage<>(content, null, null);
+        }
+
+        // 이전 페이지로 이동해 온 경우에는 출발한 페이지가 다음 페이지로 남아있다
+        boolean hasNext = backward || hasMore;
+        boolean hasPrev = backward ? hasMore : keyset != null;
+
+        long firstId = content.get(0).getMemberId();
+        long lastId = content.get(content.size() - 1).getMemberId();
+        return new CursorPage<>(content,
+                hasNext ? MemberKeysetCursor.next(lastId).encode() : null,
+                hasPrev ? MemberKeysetCursor.prev(firstId).encode() : null);
+    }
+
+    private BooleanExpression seek(MemberKeysetCursor keyset) {
+        if (keyset == null) {
+            return null;
+        }
+        return keyset.isBackward() ? member.id.lt(keyset.getMemberId()) : member.id.gt(keyset.getMemberId());
+    }
+
+    @Override
+    public long bulkUpdateByCondition(MemberSearchCondition condition, MemberBulkUpdate updates) {
+        return bulkUpdateByCondition(condition, updates, progress -> {
+        });
+    }
+
+    @Override
+    public long bulkUpdateByCondition(MemberSearchCondition condition, MemberBulkUpdate updates,
+                                      Consumer<BulkUpdateProgress> progressListener) {
+        return memberBulkUpdater.update(bulkWhere(condition), updates, progressListener);
+    }
+
+    @Override
+    public long bulkDeleteByCondition(MemberSearchCondition condition) {
+        return bulkDeleteByCondition(condition, progress -> {
+        });
+    }
+
+    @Override
+    public long bulkDeleteByCondition(MemberSearchCondition condition, Consumer<BulkUpdateProgress> progressListener) {
+        return memberBulkUpdater.delete(bulkWhere(condition), progressListener);
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchOne());
+    // update/delete 문에는 조인을 쓸 수 없으므로 팀 조건도 member.team_id로 거른다
+    private Predicate bulkWhere(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        return queryTemplates.predicate(normalized, MemberSearchShape.of(normalized));
     }
 }
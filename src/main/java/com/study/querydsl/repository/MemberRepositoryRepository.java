@@ -1,9 +1,18 @@
 package com.study.querydsl.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface MemberRepositoryRepository extends JpaRepository<com.study.querydsl.entity.Member, Long>, MemberRepositoryCustom {
     List<com.study.querydsl.entity.Member> findByName(String name);
+
+    @EntityGraph(com.study.querydsl.entity.Member.WITH_TEAM)
+    @Query("select m from Member m")
+    List<com.study.querydsl.entity.Member> findAllWithTeam();
+
+    @EntityGraph(com.study.querydsl.entity.Member.WITH_TEAM)
+    List<com.study.querydsl.entity.Member> findWithTeamByName(String name);
 }
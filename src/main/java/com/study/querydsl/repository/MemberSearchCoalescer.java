@@ -0,0 +1,175 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.config.ReadReplicaProperties;
+import com.study.querydsl.config.SearchCoalescingProperties;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 같은 검색이 동시에 여러 번 들어오면 쿼리는 한 번만 실행하고 결과를 함께 받는다 (single flight)
+ *
+ * 키는 메서드, 정규화한 검색조건, pageable이다. 먼저 온 요청(leader)이 쿼리를 실행하고,
+ * 실행 중에 들어온 같은 키의 요청(follower)은 그 결과(또는 예외)를 기다려서 그대로 받는다.
+ * 끝난 결과는 보관하지 않으므로 캐시처럼 오래된 결과가 남지 않는다.
+ * 진행 중인 검색은 ConcurrentHashMap에 두고 putIfAbsent로 leader를 정하므로, 키마다 버킷 단위로만 경합하고
+ * 쿼리를 실행하는 동안에는 어떤 락도 잡지 않는다.
+ *
+ * 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 결과에 섞이므로 함께 쓰지 않고 호출한 트랜잭션에서 따로 실행한다.
+ * 그 밖에는 검색을 읽기 전용 트랜잭션에서 실행하므로 read replica가 켜져 있으면 replica에서 읽는다.
+ * 기다리는 follower는 트랜잭션(커넥션)을 잡지 않는다.
+ * follower는 leader와 같은 결과 객체를 받으므로 결과를 수정하면 안 된다.
+ *
+ * 회원/팀 변경을 커밋한 스레드는 자기 변경을 읽어야 하므로(read-your-writes) 다음 경우에는 함께 쓰지 않고 따로 실행한다.
+ * - 진행 중인 검색이 이 스레드의 커밋보다 먼저 시작됐다
+ * - read replica가 켜져 있고 커밋한 지 read-your-writes-window가 지나지 않았다.
+ *   따로 실행하면 ReplicaRoutingDataSource가 primary에서 읽지만, leader는 복제가 늦은 replica에서 읽을 수 있다
+ *
+ * member.search.coalescing{method, role=leader|follower|bypassed}
+ */
+@Component
+public class MemberSearchCoalescer {
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final TransactionOperations readOnlyTransaction;
+    private final long readYourWritesNanos;
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>(); // 이 스레드가 마지막으로 커밋한 System.nanoTime()
+    private final ConcurrentMap<SearchKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MemberSearchCoalescer(SearchCoalescingProperties properties, MeterRegistry meterRegistry,
+                                 PlatformTransactionManager transactionManager, ReadReplicaProperties readReplicaProperties) {
+        this(properties, meterRegistry, readOnly(transactionManager),
+                readReplicaProperties.isEnabled() ? readReplicaProperties.getReadYourWritesWindow() : Duration.ZERO);
+    }
+
+    MemberSearchCoalescer(SearchCoalescingProperties properties, MeterRegistry meterRegistry,
+                          TransactionOperations readOnlyTransaction, Duration readYourWritesWindow) {
+        this.enabled = properties.isEnabled();
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true); // 이미 읽기 전용 트랜잭션 안이면 거기에 참여한다
+        return template;
+    }
+
+    /**
+     * @param normalized MemberSearchCondition.normalize()한 검색조건. 키로 쓰이므로 이후에 바꾸면 안 된다
+     * @param pageable   페이지 없이 조회하면 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, MemberSearchCondition normalized, Pageable pageable, Supplier<T> search) {
+        if (inWriteTransaction()) {
+            return search.get();
+        }
+        if (!enabled) {
+            return readOnlyTransaction.execute(status -> search.get());
+        }
+
+        SearchKey key = new SearchKey(method, normalized, pageable);
+        Flight flight = new Flight(new CompletableFuture<>(), System.nanoTime());
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            if (mustReadOwnWrite(leader)) {
+                counter(method, "bypassed").increment();
+                return readOnlyTransaction.execute(status -> search.get());
+            }
+            counter(method, "follower").increment();
+            return (T) await(leader.result());
+        }
+
+        counter(method, "leader").increment();
+        try {
+            T result = readOnlyTransaction.execute(status -> search.get());
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 회원/팀 변경은 커밋한 스레드에서 발행된다
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Member.class) || event.isAbout(Team.class)) {
+            rememberWrite();
+        }
+    }
+
+    void rememberWrite() {
+        lastWrite.set(System.nanoTime());
+    }
+
+    private boolean mustReadOwnWrite(Flight leader) {
+        Long wroteAt = lastWrite.get();
+        if (wroteAt == null) {
+            return false;
+        }
+        return leader.startedAt() - wroteAt <= 0 || System.nanoTime() - wroteAt < readYourWritesNanos;
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(String method, String role) {
+        return counters.computeIfAbsent(new CounterKey(method, role), key -> Counter.builder("member.search.coalescing")
+                .description("member searches that ran the query (leader) or shared an in-flight result (follower)")
+                .tag("method", key.method())
+                .tag("role", key.role())
+                .register(meterRegistry));
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private record Flight(CompletableFuture<Object> result, long startedAt) {
+    }
+
+    private record SearchKey(String method, MemberSearchCondition condition, Pageable pageable) {
+    }
+
+    private record CounterKey(String method, String role) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.repository.MemberSearchShape.AGE_GOE;
+import static com.study.querydsl.repository.MemberSearchShape.AGE_LOE;
+import static com.study.querydsl.repository.MemberSearchShape.NAME_IGNORE_CASE;
+import static com.study.querydsl.repository.MemberSearchShape.NAME_STARTS_WITH;
+import static com.study.querydsl.repository.MemberSearchShape.TEAM_NAME;
+import static com.study.querydsl.repository.MemberSearchShape.USERNAME;
+import static com.study.querydsl.repository.MemberSearchShape.has;
+
+/**
+ * 검색 쿼리 모양(MemberSearchShape)별로 미리 만들어둔 JPQL 템플릿
+ *
+ * QueryDSL로 매번 프로젝션과 BooleanExpression을 만들고 JPQL로 직렬화하는 대신,
+ * 모양마다 한 번만 JPQL 문자열을 만들고 요청마다 파라미터만 바인딩한다.
+ * JPQL 문자열이 같으므로 하이버네이트의 쿼리 플랜 캐시에서 파싱 결과도 재사용된다.
+ * keyset 검색, 벌크 update/delete, 표본 count처럼 QueryDSL 조건이 필요한 곳도 predicate()로 같은 조건을 만든다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueryTemplates {
+
+    private static final String SELECT_CONTENT =
+            "select new com.study.querydsl.dto.MemberTeamDTO(m.id, m.name, m.age, t.id, t.name)";
+    private static final String SELECT_COUNT = "select count(m)";
+    // 팀 컬럼은 조회할 때만 조인한다. 조건은 모두 member 테이블의 컬럼만 사용한다
+    private static final String FROM_CONTENT = " from Member m left join m.team t";
+    private static final String FROM_COUNT = " from Member m";
+
+    private final EntityManager em;
+    private final TeamNameDictionary teamNameDictionary;
+
+    private final ConcurrentMap<Integer, String> contentTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> countTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * @param condition MemberSearchCondition.normalize()된 검색조건
+     * @param shape     condition 중 쿼리에 사용할 조건들
+     */
+    public TypedQuery<MemberTeamDTO> content(MemberSearchCondition condition, int shape) {
+        String jpql = contentTemplates.computeIfAbsent(shape, s -> SELECT_CONTENT + FROM_CONTENT + where(s));
+        return bind(em.createQuery(jpql, MemberTeamDTO.class), condition, shape);
+    }
+
+    public TypedQuery<Long> count(MemberSearchCondition condition, int shape) {
+        String jpql = countTemplates.computeIfAbsent(shape, s -> SELECT_COUNT + FROM_COUNT + where(s));
+        return bind(em.createQuery(jpql, Long.class), condition, shape);
+    }
+
+    private static String where(int shape) {
+        StringBuilder where = new StringBuilder();
+        appendIf(where, shape, USERNAME, "m.name = :username");
+        appendIf(where, shape, TEAM_NAME, "m.team.id in :teamIds"); // TeamNameDictionary로 팀 이름을 id로 바꿔서 바인딩
+        appendIf(where, shape, AGE_GOE, "m.age >= :ageGoe");
+        appendIf(where, shape, AGE_LOE, "m.age <= :ageLoe");
+        // like 'abc%' 대신 범위 조건으로 써서 normalized_name 인덱스를 range scan 한다
+        appendIf(where, shape, NAME_STARTS_WITH, "m.normalizedName >= :namePrefix and m.normalizedName < :namePrefixEnd");
+        appendIf(where, shape, NAME_IGNORE_CASE, "m.normalizedName = :nameIgnoreCase");
+        return where.toString();
+    }
+
+    /**
+     * where(shape)와 같은 조건을 QueryDSL로 만든다. update/delete 문에도 쓰므로 member 테이블의 컬럼만 사용한다
+     *
+     * @param condition MemberSearchCondition.normalize()된 검색조건
+     */
+    public Predicate predicate(MemberSearchCondition condition, int shape) {
+        BooleanBuilder where = new BooleanBuilder();
+        if (has(shape, USERNAME)) where.and(member.name.eq(condition.getUsername()));
+        if (has(shape, TEAM_NAME)) where.and(member.team.id.in(teamNameDictionary.idsOf(condition.getTeamName())));
+        if (has(shape, AGE_GOE)) where.and(member.age.goe(condition.getAgeGoe()));
+        if (has(shape, AGE_LOE)) where.and(member.age.loe(condition.getAgeLoe()));
+        if (has(shape, NAME_STARTS_WITH)) {
+            where.and(member.normalizedName.goe(condition.getNameStartsWith()))
+                    .and(member.normalizedName.lt(prefixEnd(condition.getNameStartsWith())));
+        }
+        if (has(shape, NAME_IGNORE_CASE)) where.and(member.normalizedName.eq(condition.getNameIgnoreCase()));
+        return where.getValue(); // 조건이 없으면 null
+    }
+
+    private static void appendIf(StringBuilder where, int shape, int field, String predicate) {
+        if (has(shape, field)) {
+            where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+        }
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query, MemberSearchCondition condition, int shape) {
+        if (has(shape, USERNAME)) query.setParameter("username", condition.getUsername());
+        if (has(shape, TEAM_NAME)) query.setParameter("teamIds", teamNameDictionary.idsOf(condition.getTeamName()));
+        if (has(shape, AGE_GOE)) query.setParameter("ageGoe", condition.getAgeGoe());
+        if (has(shape, AGE_LOE)) query.setParameter("ageLoe", condition.getAgeLoe());
+        if (has(shape, NAME_STARTS_WITH)) {
+            query.setParameter("namePrefix", condition.getNameStartsWith());
+            query.setParameter("namePrefixEnd", prefixEnd(condition.getNameStartsWith()));
+        }
+        if (has(shape, NAME_IGNORE_CASE)) query.setParameter("nameIgnoreCase", condition.getNameIgnoreCase());
+        return query;
+    }
+
+    /**
+     * prefix로 시작하는 문자열은 모두 [prefix, prefixEnd(prefix)) 범위에 있다
+     */
+    static String prefixEnd(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+}
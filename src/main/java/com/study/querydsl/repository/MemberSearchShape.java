@@ -0,0 +1,58 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+
+import java.util.StringJoiner;
+
+/**
+ * 검색조건 중 어떤 조건이 설정되어 있는지(= 쿼리 모양)를 나타내는 비트마스크
+ * 조건 값이 달라도 모양이 같으면 같은 JPQL에 파라미터만 바꿔서 실행할 수 있다.
+ */
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int NAME_STARTS_WITH = 1 << 4;
+    public static final int NAME_IGNORE_CASE = 1 << 5;
+
+    // 모든 조건을 다 쓴 모양, 가능한 모양의 개수는 ALL + 1
+    public static final int ALL = USERNAME | TEAM_NAME | AGE_GOE | AGE_LOE | NAME_STARTS_WITH | NAME_IGNORE_CASE;
+
+    private static final String[] NAMES = {"username", "teamName", "ageGoe", "ageLoe", "nameStartsWith", "nameIgnoreCase"};
+
+    private MemberSearchShape() {
+    }
+
+    /**
+     * @param condition MemberSearchCondition.normalize()된 검색조건
+     */
+    public static int of(MemberSearchCondition condition) {
+        int shape = 0;
+        if (condition.getUsername() != null) shape |= USERNAME;
+        if (condition.getTeamName() != null) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        if (condition.getNameStartsWith() != null) shape |= NAME_STARTS_WITH;
+        if (condition.getNameIgnoreCase() != null) shape |= NAME_IGNORE_CASE;
+        return shape;
+    }
+
+    public static boolean has(int shape, int field) {
+        return (shape & field) != 0;
+    }
+
+    /**
+     * ex) "username+ageGoe", 조건이 없으면 "none"
+     */
+    public static String describe(int shape) {
+        StringJoiner joiner = new StringJoiner("+");
+        for (int i = 0; i < NAMES.length; i++) {
+            if (has(shape, 1 << i)) {
+                joiner.add(NAMES[i]);
+            }
+        }
+        return joiner.length() == 0 ? "none" : joiner.toString();
+    }
+}
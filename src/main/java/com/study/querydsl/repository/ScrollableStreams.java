@@ -0,0 +1,81 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.types.FactoryExpression;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 하이버네이트 ScrollableResults(JDBC 커서)를 Stream으로 감싼다
+ * 결과 전체를 List로 만들지 않고, 엔티티를 조회하면 clearInterval개마다 스트림으로 읽은 엔티티만 detach해서
+ * 조회 건수와 상관없이 메모리 사용량이 일정하다.
+ * 호출한 쪽의 트랜잭션에서 읽으므로 영속성 컨텍스트 전체를 비우지 않는다(다른 엔티티와 flush 전의 변경은 그대로 남는다).
+ * 읽기 전용으로 조회하므로 스트림으로 읽은 엔티티는 바꿔도 반영되지 않고, detach해도 잃는 변경이 없다.
+ * DTO 프로젝션은 영속성 컨텍스트에 아무것도 남기지 않으므로 clearInterval은 0으로 둔다.
+ *
+ * 트랜잭션(=커넥션)이 열려있는 동안에만 읽을 수 있고, 다 읽으면 반드시 close해야 커서가 닫힌다.
+ */
+final class ScrollableStreams {
+
+    private ScrollableStreams() {
+    }
+
+    /**
+     * @param projection    QueryDSL DTO 프로젝션. 엔티티를 조회하면 null
+     * @param clearInterval 읽은 엔티티를 이 개수마다 detach 한다. 0이면 detach 하지 않는다
+     */
+    static <T> Stream<T> stream(EntityManager em, Query query, FactoryExpression<T> projection,
+                                int fetchSize, int clearInterval) {
+        ScrollableResults<?> results = query.unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        Session session = em.unwrap(Session.class);
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private final List<Object> streamed = new ArrayList<>();
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                // 이전 row들은 이미 action에서 처리가 끝났으므로 다음 row를 읽기 전에 영속성 컨텍스트에서 뺀다
+                if (clearInterval > 0 && streamed.size() >= clearInterval) {
+                    streamed.forEach(session::detach);
+                    streamed.clear();
+                }
+                if (!results.next()) {
+                    return false;
+                }
+                Object row = results.get();
+                // 스트림 전부터 영속성 컨텍스트에 있던 엔티티는 읽기 전용이 되지 않으므로 detach 대상에서 뺀다
+                if (clearInterval > 0 && projection == null && session.contains(row) && session.isReadOnly(row)) {
+                    streamed.add(row);
+                }
+                action.accept(toRow(row, projection));
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(results::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T toRow(Object row, FactoryExpression<T> projection) {
+        // QueryDSL의 ResultTransformer가 적용되지 않은 경우 select절의 값들이 배열로 넘어온다
+        if (projection != null && row instanceof Object[] args) {
+            return projection.newInstance(args);
+        }
+        return (T) row;
+    }
+}
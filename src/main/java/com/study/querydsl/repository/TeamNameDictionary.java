@@ -0,0 +1,114 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 팀 이름 -> 팀 id 사전
+ *
+ * teamName 검색조건을 team.name = ? (조인 후 필터) 대신 member.team_id in (?) 로 바꾸기 위해 사용한다.
+ * 이렇게 하면 member 테이블의 team_id 인덱스로 바로 거를 수 있고, team 조인은 팀 컬럼을 조회할 때만 필요하다.
+ * 팀이 바뀌면(커밋된 후) 사전을 비우고 다음 조회 때 다시 읽는다.
+ * 쓰기 트랜잭션 안에서는 커밋되지 않은 변경을 사전에 남기지 않도록 사전을 거치지 않고 DB에서 바로 찾는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamNameDictionary {
+
+    /**
+     * 해당 이름의 팀이 없을 때 돌려주는 id
+     * 시퀀스로 만든 id는 양수이므로 in 조건에 넣으면 아무 row도 걸리지 않는다
+     */
+    public static final long MISSING_TEAM_ID = -1L;
+
+    private final EntityManager em;
+
+    private Map<String, List<Long>> idsByName; // null이면 다시 읽어야 한다
+    private long generation;
+
+    /**
+     * @return 이름이 같은 팀이 여러 개일 수 있으므로 id 목록, 없으면 [MISSING_TEAM_ID]
+     */
+    public List<Long> idsOf(String teamName) {
+        // 쓰기 트랜잭션 안에서 읽으면 커밋되지 않은 팀 추가/이름 변경이 사전에 섞이고,
+        // 롤백되면 무효화 이벤트도 발생하지 않으므로 사전을 쓰지 않고 바로 조회한다
+        if (inWriteTransaction()) {
+            return find(teamName);
+        }
+
+        List<Long> ids = dictionary().get(teamName);
+        if (ids != null) {
+            return ids;
+        }
+
+        // 사전에 없으면 방금 만들어진 팀일 수 있으므로 DB에서 확인한다
+        return find(teamName);
+    }
+
+    private List<Long> find(String teamName) {
+        List<Long> found = em.createQuery("select t.id from Team t where t.name = :name order by t.id", Long.class)
+                .setParameter("name", teamName)
+                .getResultList();
+        return found.isEmpty() ? List.of(MISSING_TEAM_ID) : found;
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Team.class)) {
+            invalidate();
+        }
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        idsByName = null;
+    }
+
+    private Map<String, List<Long>> dictionary() {
+        long loadingGeneration;
+        synchronized (this) {
+            if (idsByName != null) {
+                return idsByName;
+            }
+            loadingGeneration = generation;
+        }
+
+        Map<String, List<Long>> loaded = load();
+        synchronized (this) {
+            // 읽는 동안 팀이 바뀌었다면 읽은 내용은 이번 조회에만 쓰고 보관하지 않는다
+            if (generation == loadingGeneration) {
+                idsByName = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private Map<String, List<Long>> load() {
+        List<Object[]> rows = em.createQuery("select t.name, t.id from Team t order by t.id", Object[].class)
+                .getResultList();
+
+        Map<String, List<Long>> ids = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                ids.computeIfAbsent((String) row[0], name -> new ArrayList<>()).add((Long) row[1]);
+            }
+        }
+        ids.replaceAll((name, teamIds) -> List.copyOf(teamIds));
+        return ids;
+    }
+}
@@ -1,7 +1,16 @@
 package com.study.querydsl.repository;
 
 import com.study.querydsl.entity.Team;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    // 컬렉션을 join fetch하므로 페이징하면 안 된다. 페이징이 필요하면 findAll(Pageable) 후 members를 지연 로딩(batch fetch)
+    @EntityGraph(Team.WITH_MEMBERS)
+    @Query("select t from Team t")
+    List<Team> findTeamsWithMembers();
 }
@@ -0,0 +1,28 @@
+package com.study.querydsl.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * 회원 내보내기 형식
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    CSV("csv"),
+    NDJSON("ndjson");
+
+    private final String extension;
+
+    /**
+     * @param extension csv | ndjson, 대소문자 무시
+     */
+    public static Optional<ExportFormat> ofExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst();
+    }
+}
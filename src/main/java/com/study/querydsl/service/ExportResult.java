@@ -0,0 +1,15 @@
+package com.study.querydsl.service;
+
+import java.time.Duration;
+
+/**
+ * 내보내기 결과
+ * @param bytes 압축한 크기
+ */
+public record ExportResult(long rows, long bytes, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rows * 1_000_000_000.0 / nanos;
+    }
+}
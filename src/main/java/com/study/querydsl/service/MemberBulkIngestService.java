@@ -0,0 +1,223 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.config.IngestProperties;
+import com.study.querydsl.dto.BulkIngestResult;
+import com.study.querydsl.dto.MemberIngestRow;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangeEventPublisher;
+import com.study.querydsl.repository.TeamNameDictionary;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NDJSON(한 줄에 회원 하나)을 읽어서 StatelessSession으로 일괄 저장한다
+ *
+ * em.persist와 달리 영속성 컨텍스트, dirty checking, 2차 캐시, 엔티티 콜백을 거치지 않고 바로 insert 문을 만들며,
+ * batch-size개씩 JDBC 배치로 보내고 commit-interval개마다 커밋한다. 본문은 읽는 대로 처리하므로 크기와 상관없이 메모리 사용량이 일정하다.
+ *
+ * - 팀은 이름으로 찾는다(TeamNameDictionary). 없는 팀이면 그 줄은 실패로 보고하고, 이름이 같은 팀이 여럿이면 id가 가장 작은 팀에 넣는다.
+ * - 형식이 잘못된 줄은 건너뛰고 줄 번호와 이유를 결과에 담는다.
+ * - 커밋하다 실패하면 그 범위를 롤백하고 한 줄씩 다시 저장해서 실패한 줄만 보고한다. 앞서 커밋한 범위는 그대로 남는다.
+ * - 엔티티 콜백(@PrePersist)이 호출되지 않지만 normalizedName은 Member 생성자가 채운다.
+ * - 다 읽은 뒤(중간에 실패해도) 회원 벌크 변경 이벤트를 한 번 발행하고 team.members 컬렉션 캐시를 비운다.
+ *   커밋할 때마다 발행하면 캐시와 읽기 모델이 범위마다 다시 만들어진다.
+ */
+@Slf4j
+@Service
+public class MemberBulkIngestService {
+
+    private static final String TEAM_MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    private final SessionFactory sessionFactory;
+    private final TeamNameDictionary teamNameDictionary;
+    private final EntityChangeEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final IngestProperties properties;
+
+    public MemberBulkIngestService(EntityManagerFactory emf, TeamNameDictionary teamNameDictionary,
+                                   EntityChangeEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                   IngestProperties properties) {
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.teamNameDictionary = teamNameDictionary;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public BulkIngestResult ingest(InputStream ndjson) throws IOException {
+        // StatelessSession은 자기 커넥션으로 커밋하므로 바깥 트랜잭션과 원자적으로 묶이지 않는다
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("일괄 등록은 범위마다 커밋하므로 트랜잭션 안에서 호출할 수 없습니다");
+        }
+
+        long start = System.nanoTime();
+        Ingestion ingestion = new Ingestion();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(properties.getBatchSize());
+
+            List<PendingRow> pending = new ArrayList<>(properties.getCommitInterval());
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ingestion.received++;
+
+                Member member = toMember(line, lineNumber, ingestion);
+                if (member != null) {
+                    pending.add(new PendingRow(lineNumber, member));
+                }
+                if (pending.size() >= properties.getCommitInterval()) {
+                    commit(session, pending, ingestion);
+                }
+            }
+            commit(session, pending, ingestion);
+        } finally {
+            // 중간에 실패해도 앞서 커밋한 범위는 남아 있으므로 한 번만 알린다
+            if (ingestion.inserted > 0) {
+                eventPublisher.publishBulkChange(Member.class);
+                sessionFactory.getCache().evictCollectionData(TEAM_MEMBERS_ROLE); // 팀에 회원이 늘었다
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        BulkIngestResult result = new BulkIngestResult(ingestion.received, ingestion.inserted, ingestion.failed,
+                ingestion.errors, elapsedMillis);
+        log.info("ingested {} of {} members in {} ms ({} rows/s), {} failed", result.getInserted(), result.getReceived(),
+                elapsedMillis, Math.round(result.getRowsPerSecond()), result.getFailed());
+        return result;
+    }
+
+    private Member toMember(String line, long lineNumber, Ingestion ingestion) {
+        MemberIngestRow row;
+        try {
+            row = objectMapper.readValue(line, MemberIngestRow.class);
+        } catch (JsonProcessingException e) {
+            ingestion.fail(lineNumber, "JSON 형식이 아닙니다: " + e.getOriginalMessage());
+            return null;
+        }
+
+        if (row.getUsername() == null || row.getUsername().isBlank()) {
+            ingestion.fail(lineNumber, "username이 없습니다");
+            return null;
+        }
+        if (row.getAge() == null || row.getAge() < 0) {
+            ingestion.fail(lineNumber, "age는 0 이상이어야 합니다: " + row.getAge());
+            return null;
+        }
+
+        Member member = new Member(row.getUsername(), row.getAge()); // 생성자가 normalizedName도 채운다
+        if (row.getTeamName() != null) {
+            Long teamId = teamNameDictionary.idsOf(row.getTeamName()).get(0);
+            if (teamId == TeamNameDictionary.MISSING_TEAM_ID) {
+                ingestion.fail(lineNumber, "없는 팀입니다: " + row.getTeamName());
+                return null;
+            }
+            member.setTeam(ingestion.teamReference(teamId));
+        }
+        return member;
+    }
+
+    private void commit(StatelessSession session, List<PendingRow> pending, Ingestion ingestion) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            insert(session, pending);
+            ingestion.inserted += pending.size();
+        } catch (RuntimeException e) {
+            log.warn("bulk ingest of {} members failed, retrying one by one: {}", pending.size(), e.getMessage());
+            for (PendingRow row : pending) {
+                try {
+                    insert(session, List.of(row));
+                    ingestion.inserted++;
+                } catch (RuntimeException rowFailure) {
+                    ingestion.fail(row.line(), "저장하지 못했습니다: " + rootMessage(rowFailure));
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private void insert(StatelessSession session, List<PendingRow> rows) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            for (PendingRow row : rows) {
+                session.insert(row.member());
+            }
+            // 아직 보내지 않은 배치를 커밋 전에 보낸다
+            ((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            ((SharedSessionContractImplementor) session).getJdbcCoordinator().abortBatch();
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private record PendingRow(long line, Member member) {
+    }
+
+    /**
+     * 요청 하나를 처리하는 동안의 집계
+     */
+    private class Ingestion {
+
+        long received;
+        long inserted;
+        long failed;
+        final List<BulkIngestResult.LineError> errors = new ArrayList<>();
+
+        // insert 할 때 외래키 값만 필요하므로 id만 채운 팀을 쓴다(select 없음)
+        private final Map<Long, Team> teams = new HashMap<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < properties.getMaxReportedErrors()) {
+                errors.add(new BulkIngestResult.LineError(line, message));
+            }
+        }
+
+        Team teamReference(Long teamId) {
+            return teams.computeIfAbsent(teamId, id -> {
+                Team team = new Team(null);
+                team.setId(id);
+                return team;
+            });
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.config.SeedProperties;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangeEventPublisher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * 대량의 member/team 테스트 데이터 생성기
+ *
+ * - querydsl.seed.mode=example이면 예제에서 쓰던 teamA/teamB, member0~99(나이 = 번호) 데이터를 만든다
+ * - generated이면 teams/members 규모로 만든다. member는 chunkSize 단위로 나눠서 threads개의 스레드가 각자의 트랜잭션에서 저장한다
+ * - generated는 StatelessSession으로 batchSize개씩 JDBC 배치 insert 한다. 영속성 컨텍스트와 row마다의 커밋 후 이벤트가 쌓이지 않고,
+ *   다 저장한 뒤 팀/회원 벌크 변경 이벤트를 한 번씩 발행한다
+ * - 이름은 흔한 성/이름일수록 자주, 나이는 30대 후반을 중심으로 한 정규분포, 팀 크기는 소수의 큰 팀과 다수의 작은 팀(zipf)으로 만든다
+ */
+@Slf4j
+@Component
+public class MemberDataSeeder {
+
+    // 성은 실제 분포처럼 앞쪽일수록 흔하다
+    private static final String[] FAMILY_NAMES = {
+            "김", "이", "박", "최", "정", "강", "조", "윤", "장", "임",
+            "한", "오", "서", "신", "권", "황", "안", "송", "류", "홍"};
+    private static final String[] GIVEN_NAMES = {
+            "민준", "서준", "도윤", "예준", "시우", "하준", "주원", "지호", "지후", "준우",
+            "서연", "서윤", "지우", "서현", "민서", "하은", "하윤", "윤서", "지유", "채원",
+            "현우", "지훈", "건우", "우진", "선우", "연우", "유준", "정우", "승우", "승현",
+            "수아", "지아", "지민", "다은", "은서", "예은", "수빈", "소율", "예린", "지원"};
+
+    private static final int EXAMPLE_MEMBERS = 100;
+
+    private static final double AGE_MEAN = 38;
+    private static final double AGE_STD_DEV = 12;
+    private static final int MIN_AGE = 15;
+    private static final int MAX_AGE = 80;
+
+    private final EntityManager em;
+    private final SessionFactory sessionFactory;
+    private final EntityChangeEventPublisher eventPublisher;
+    private final SeedProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberDataSeeder(EntityManager em, EntityManagerFactory emf, EntityChangeEventPublisher eventPublisher,
+                            SeedProperties properties, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * querydsl.seed.mode에 따라 예제 데이터 또는 teams/members 규모의 데이터를 만든다
+     */
+    public void seed() {
+        if (properties.getMode() == SeedProperties.Mode.EXAMPLE) {
+            transactionTemplate.executeWithoutResult(status -> seedExample());
+            return;
+        }
+        seed(properties.getTeams(), properties.getMembers());
+    }
+
+    private void seedExample() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < EXAMPLE_MEMBERS; i++) {
+            Team selectedTeam = (i % 2 == 0 ? teamA : teamB);
+            em.persist(new Member("member" + i, i, selectedTeam));
+        }
+    }
+
+    /**
+     * @return 저장한 member 수
+     */
+    public long seed(int teamCount, long memberCount) {
+        long start = System.nanoTime();
+
+        long[] teamIds = new long[teamCount];
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()));
+        try {
+            inStatelessTransaction(session -> saveTeams(session, teamIds));
+            double[] teamWeights = zipfCumulativeWeights(teamIds.length);
+
+            long chunkSize = properties.getChunkSize();
+            int chunks = (int) ((memberCount + chunkSize - 1) / chunkSize);
+
+            List<Future<?>> results = new ArrayList<>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long from = chunk * chunkSize;
+                long to = Math.min(memberCount, from + chunkSize);
+                SplittableRandom random = new SplittableRandom(properties.getRandomSeed() + chunk);
+
+                results.add(executor.submit(() -> inStatelessTransaction(
+                        session -> saveMembers(session, to - from, teamIds, teamWeights, random))));
+            }
+
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("데이터 생성 중 인터럽트되었습니다", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("데이터 생성 실패", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            // StatelessSession은 엔티티 이벤트를 발생시키지 않는다. 중간에 실패해도 커밋된 청크는 남으므로 항상 알린다
+            eventPublisher.publishBulkChange(Team.class);
+            eventPublisher.publishBulkChange(Member.class);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("seeded {} teams, {} members in {}s ({} rows/s)", teamIds.length, memberCount,
+                String.format("%.2f", seconds), String.format("%.0f", (teamIds.length + memberCount) / seconds));
+        return memberCount;
+    }
+
+    private void saveTeams(StatelessSession session, long[] teamIds) {
+        for (int i = 0; i < teamIds.length; i++) {
+            teamIds[i] = (Long) session.insert(new Team("team" + i)); // 시퀀스 전략이므로 insert 시점에 id가 정해진다
+        }
+    }
+
+    private void saveMembers(StatelessSession session, long count, long[] teamIds, double[] teamWeights,
+                             SplittableRandom random) {
+        // insert 할 때 외래키 값만 필요하므로 id만 채운 팀을 쓴다(select 없음)
+        Map<Long, Team> teams = new HashMap<>();
+        for (long i = 1; i <= count; i++) {
+            Member member = new Member(randomName(random), randomAge(random));
+            if (teamIds.length > 0) {
+                member.setTeam(teams.computeIfAbsent(teamIds[pick(teamWeights, random)], MemberDataSeeder::teamReference));
+            }
+            session.insert(member);
+        }
+    }
+
+    private static Team teamReference(Long teamId) {
+        Team team = new Team(null);
+        team.setId(teamId);
+        return team;
+    }
+
+    private void inStatelessTransaction(Consumer<StatelessSession> work) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(properties.getBatchSize());
+            Transaction transaction = session.beginTransaction();
+            try {
+                work.accept(session);
+                // 아직 보내지 않은 배치를 커밋 전에 보낸다
+                ((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private String randomName(SplittableRandom random) {
+        return FAMILY_NAMES[skewedIndex(FAMILY_NAMES.length, random)]
+                + GIVEN_NAMES[skewedIndex(GIVEN_NAMES.length, random)];
+    }
+
+    private int randomAge(SplittableRandom random) {
+        double gaussian = nextGaussian(random);
+        int age = (int) Math.round(AGE_MEAN + gaussian * AGE_STD_DEV);
+        return Math.max(MIN_AGE, Math.min(MAX_AGE, age));
+    }
+
+    // Box-Muller
+    private double nextGaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    // 앞쪽 인덱스가 더 자주 나오도록 두 균등분포 중 작은 값을 쓴다
+    private int skewedIndex(int size, SplittableRandom random) {
+        return Math.min(random.nextInt(size), random.nextInt(size));
+    }
+
+    private int pick(double[] cumulativeWeights, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, cumulativeWeights.length - 1);
+    }
+
+    // k번째 팀이 1/k에 비례하는 크기를 갖는 누적 분포
+    private double[] zipfCumulativeWeights(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / (k + 1);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+}
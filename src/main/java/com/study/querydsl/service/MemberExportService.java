@@ -0,0 +1,282 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.config.ExportProperties;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberJpaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 + 팀 전체를 gzip으로 압축한 CSV/NDJSON으로 내보낸다
+ *
+ * member.id 범위를 range-size씩 나눠서 범위마다 별도 스레드, 별도 읽기 전용 트랜잭션(= 별도 커넥션)에서
+ * 큰 fetch size로 스크롤하며 읽고, 각자 하나의 gzip 멤버로 압축한다.
+ * 압축한 범위를 차례로 이어 붙이면 그대로 하나의 gzip 파일이 된다(RFC 1952의 여러 멤버, gzip/zcat/GZIPInputStream 모두 지원).
+ * 조회와 압축이 모두 병렬이고 엔티티를 만들지 않으므로 findAll + JSON 직렬화보다 훨씬 빠르다.
+ *
+ * 메모리에는 동시에 처리 중인 범위(threads x 2개)의 압축 결과만 올라간다.
+ * ordered이면 범위 안에서 id 순으로 읽고 범위 순서대로 쓰므로 전체가 id 순이다.
+ * 아니면 정렬 없이 읽고 먼저 끝난 범위부터 쓴다.
+ *
+ * member.export.rows        내보낸 row 수
+ * member.export{format}     내보내기 한 번에 걸린 시간
+ */
+@Slf4j
+@Service
+public class MemberExportService {
+
+    static final String CSV_HEADER = "memberId,username,age,teamId,teamName\n";
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final JPAQueryFactory queryFactory;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter exportedRows;
+
+    public MemberExportService(MemberJpaRepository memberJpaRepository, JPAQueryFactory queryFactory,
+                               ObjectMapper objectMapper, ExportProperties properties, MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.queryFactory = queryFactory;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setThreadNamePrefix("member-export-");
+        executor.initialize();
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.exportedRows = Counter.builder("member.export.rows")
+                .description("rows written by member exports")
+                .baseUnit("rows")
+                .register(meterRegistry);
+    }
+
+    /**
+     * out에 gzip으로 압축한 내보내기 결과를 쓴다. out은 닫지 않는다
+     */
+    public ExportResult export(ExportFormat format, boolean ordered, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long rows = 0;
+        long bytes = 0;
+
+        if (format == ExportFormat.CSV) {
+            bytes += write(out, gzip(CSV_HEADER.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        List<long[]> ranges = ranges();
+        List<Future<Chunk>> submitted = new ArrayList<>();
+        try {
+            int window = properties.getThreads() * 2;
+            int next = 0;
+            if (ordered) {
+                Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+                while (next < ranges.size() || !inFlight.isEmpty()) {
+                    while (next < ranges.size() && inFlight.size() < window) {
+                        Future<Chunk> future = executor.submit(exportRange(ranges.get(next++), format, true));
+                        submitted.add(future);
+                        inFlight.add(future);
+                    }
+                    Chunk chunk = await(inFlight.poll());
+                    rows += chunk.rows();
+                    bytes += write(out, chunk.gzipped());
+                }
+            } else {
+                CompletionService<Chunk> completion = new ExecutorCompletionService<>(executor);
+                int inFlight = 0;
+                while (next < ranges.size() || inFlight > 0) {
+                    while (next < ranges.size() && inFlight < window) {
+                        submitted.add(completion.submit(exportRange(ranges.get(next++), format, false)));
+                        inFlight++;
+                    }
+                    Chunk chunk = await(completion.take());
+                    inFlight--;
+                    rows += chunk.rows();
+                    bytes += write(out, chunk.gzipped());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("회원 내보내기 중 인터럽트되었습니다");
+        } finally {
+            submitted.forEach(future -> future.cancel(true)); // 실패했으면 남은 범위는 읽지 않는다
+        }
+        out.flush();
+
+        ExportResult result = new ExportResult(rows, bytes, Duration.ofNanos(System.nanoTime() - started));
+        exportedRows.increment(rows);
+        Timer.builder("member.export")
+                .description("member export duration")
+                .tag("format", format.getExtension())
+                .register(meterRegistry)
+                .record(result.elapsed());
+        log.info("exported {} members as {} in {} ms ({} rows/s, {} bytes gzipped, {} ranges)",
+                rows, format, result.elapsed().toMillis(), Math.round(result.rowsPerSecond()), bytes, ranges.size());
+        return result;
+    }
+
+    /**
+     * 파일로 내보낸다. 이미 있으면 덮어쓴다
+     */
+    public ExportResult export(ExportFormat format, boolean ordered, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            return export(format, ordered, out);
+        }
+    }
+
+    /**
+     * [from, to) member.id 범위들
+     */
+    private List<long[]> ranges() {
+        Tuple range = readOnlyTransaction.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne());
+        List<long[]> ranges = new ArrayList<>();
+        if (range == null || range.get(member.id.min()) == null) {
+            return ranges;
+        }
+
+        long maxId = range.get(member.id.max());
+        for (long from = range.get(member.id.min()); from <= maxId; from += properties.getRangeSize()) {
+            ranges.add(new long[]{from, Math.min(from + properties.getRangeSize(), maxId + 1)});
+        }
+        return ranges;
+    }
+
+    private Callable<Chunk> exportRange(long[] range, ExportFormat format, boolean ordered) {
+        return () -> readOnlyTransaction.execute(status -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            long rows = 0;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(buffer, 64 * 1024), StandardCharsets.UTF_8));
+                 Stream<MemberTeamDTO> stream = memberJpaRepository.streamRange(range[0], range[1], ordered, properties.getFetchSize())) {
+                Iterator<MemberTeamDTO> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    MemberTeamDTO row = iterator.next();
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                    }
+                    writer.write('\n');
+                    rows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // 비어 있는 범위는 빈 gzip 멤버를 쓰지 않는다
+            return new Chunk(rows == 0 ? new byte[0] : buffer.toByteArray(), rows);
+        });
+    }
+
+    private static void writeCsv(Writer writer, MemberTeamDTO row) throws IOException {
+        writer.write(String.valueOf(row.getMemberId()));
+        writer.write(',');
+        writer.write(csv(row.getUsername()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getAge()));
+        writer.write(',');
+        writer.write(row.getTeamId() == null ? "" : String.valueOf(row.getTeamId()));
+        writer.write(',');
+        writer.write(csv(row.getTeamName()));
+    }
+
+    /**
+     * RFC 4180: 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번 쓴다
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static long write(OutputStream out, byte[] bytes) throws IOException {
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("회원 내보내기 실패", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 한 범위를 하나의 gzip 멤버로 압축한 결과
+     */
+    private record Chunk(byte[] gzipped, long rows) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberJpaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 한 줄에 하나씩 JSON으로(NDJSON) 내려준다
+ * 결과를 모아두지 않고 커서에서 읽는 대로 바로 쓰기 때문에 결과 건수와 상관없이 메모리 사용량이 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberStreamService {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return 쓴 row 수
+     */
+    @Transactional(readOnly = true)
+    public long writeNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+
+        try (Stream<MemberTeamDTO> rows = memberJpaRepository.streamSearch(condition)) {
+            Iterator<MemberTeamDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(toJson(iterator.next()));
+                writer.write('\n');
+                count++;
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private String toJson(MemberTeamDTO row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 팀별 회원 수, 나이 합계/평균/최소/최대를 메모리에 들고 있다가 바로 돌려준다
+ *
+ * 매번 member 전체를 group by 하는 대신, 커밋된 회원 변경(EntityChangedEvent)마다 해당 팀의 집계만 고친다.
+ * 최소/최대는 회원이 빠질 때도 알 수 있도록 팀마다 나이별 회원 수(히스토그램)를 들고 있다.
+ * 조회 비용은 팀 수에 비례한다.
+ *
+ * - 벌크 변경처럼 어떤 row가 바뀌었는지 모르면 DB에서 다시 집계한다.
+ * - 이벤트와 다시 집계하는 쿼리가 겹치면 어긋날 수 있으므로 querydsl.team-stats.reconcile-interval마다
+ *   DB와 맞춰보고 다르면 바꾼다.
+ *
+ * team.stats.reconciliations{result=match|drift|skipped}
+ */
+@Slf4j
+@Component
+public class TeamStatsStore {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter matches;
+    private final Counter drifts;
+    private final Counter skips;
+
+    private Map<Long, TeamAggregate> teams; // null이면 다시 집계해야 한다
+    private long generation; // 회원/팀 변경 이벤트마다 증가한다
+
+    public TeamStatsStore(EntityManager em, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.matches = meterRegistry.counter("team.stats.reconciliations", "result", "match");
+        this.drifts = meterRegistry.counter("team.stats.reconciliations", "result", "drift");
+        this.skips = meterRegistry.counter("team.stats.reconciliations", "result", "skipped");
+    }
+
+    /**
+     * 모든 팀의 통계, 팀 id 순
+     */
+    public List<TeamStatsDto> findAll() {
+        return read(teams -> {
+            List<TeamStatsDto> stats = new ArrayList<>();
+            new TreeMap<>(teams).forEach((teamId, aggregate) -> stats.add(aggregate.toDto(teamId)));
+            return stats;
+        });
+    }
+
+    public Optional<TeamStatsDto> findByTeamId(Long teamId) {
+        return read(teams -> Optional.ofNullable(teams.get(teamId)).map(aggregate -> aggregate.toDto(teamId)));
+    }
+
+    @EventListener
+    public synchronized void onEntityChanged(EntityChangedEvent event) {
+        if (!(event.isAbout(Member.class) || event.isAbout(Team.class))) {
+            return;
+        }
+        generation++; // 이 변경 전에 시작한 집계 쿼리의 결과는 쓰지 않는다
+        if (teams == null) {
+            return; // 아직 집계하지 않았으면 처음 조회할 때 DB에서 집계한다
+        }
+        if (event.isBulk()) {
+            teams = null;
+            return;
+        }
+
+        if (event.isAbout(Team.class)) {
+            onTeamChanged(event);
+            return;
+        }
+
+        switch (event.getType()) {
+            case INSERTED -> add(event.currentValue("team"), event.currentValue("age"), 1);
+            case DELETED -> add(event.previousValue("team"), event.previousValue("age"), -1);
+            case UPDATED -> {
+                if (event.getOldState() == null) {
+                    teams = null; // 이전 값을 모르면 고칠 수 없다
+                    return;
+                }
+                add(event.previousValue("team"), event.previousValue("age"), -1);
+                add(event.currentValue("team"), event.currentValue("age"), 1);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void onTeamChanged(EntityChangedEvent event) {
+        Long teamId = (Long) event.getId();
+        if (event.getType() == EntityChangedEvent.ChangeType.DELETED) {
+            teams.remove(teamId);
+        } else {
+            teams.computeIfAbsent(teamId, id -> new TeamAggregate()).name = (String) event.currentValue("name");
+        }
+    }
+
+    private void add(Object team, Object age, int delta) {
+        if (team == null) {
+            return; // 팀이 없는 회원은 집계하지 않는다
+        }
+        teams.computeIfAbsent(((Team) team).getId(), id -> new TeamAggregate()).add((Integer) age, delta);
+    }
+
+    /**
+     * DB에서 다시 집계한 결과와 비교해서 다르면 바꾼다
+     * 집계하는 동안 이벤트가 반영됐다면 읽은 결과가 이미 지난 것일 수 있으므로 이번에는 건너뛰고 다음 주기에 다시 맞춰본다
+     */
+    @Scheduled(fixedDelayString = "${querydsl.team-stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long loadingGeneration;
+        synchronized (this) {
+            if (teams == null) {
+                return; // 다음 조회 때 어차피 다시 집계한다
+            }
+            loadingGeneration = generation;
+        }
+
+        Map<Long, TeamAggregate> loaded = load();
+        synchronized (this) {
+            if (teams == null || generation != loadingGeneration) {
+                skips.increment();
+                return;
+            }
+            if (Objects.equals(teams, loaded)) {
+                matches.increment();
+                return;
+            }
+            drifts.increment();
+            log.warn("team stats drifted from database, replacing {} teams", loaded.size());
+            teams = loaded;
+        }
+    }
+
+    /**
+     * 집계가 없으면 락 밖에서 DB에서 집계하고, 락을 잡은 채로 reader에 넘긴다
+     * 집계하는 동안 이벤트가 반영됐다면 읽은 결과는 이번 조회에만 쓰고 보관하지 않는다
+     */
+    private <R> R read(Function<Map<Long, TeamAggregate>, R> reader) {
+        long loadingGeneration;
+        synchronized (this) {
+            if (teams != null) {
+                return reader.apply(teams);
+            }
+            loadingGeneration = generation;
+        }
+
+        Map<Long, TeamAggregate> loaded = load();
+        synchronized (this) {
+            if (teams == null && generation == loadingGeneration) {
+                teams = loaded;
+            }
+            return reader.apply(loaded);
+        }
+    }
+
+    private Map<Long, TeamAggregate> load() {
+        return readOnlyTransaction.execute(status -> {
+            Map<Long, TeamAggregate> loaded = new HashMap<>();
+            em.createQuery("select t.id, t.name from Team t", Object[].class)
+                    .getResultList()
+                    .forEach(row -> loaded.computeIfAbsent((Long) row[0], id -> new TeamAggregate()).name = (String) row[1]);
+
+            // 팀 수 x 나이 종류만큼의 row. member(team_id, age) 인덱스만 읽는다
+            em.createQuery("select m.team.id, m.age, count(m) from Member m where m.team is not null"
+                            + " group by m.team.id, m.age", Object[].class)
+                    .getResultList()
+                    .forEach(row -> loaded.computeIfAbsent((Long) row[0], id -> new TeamAggregate())
+                            .add((Integer) row[1], (Long) row[2]));
+            return loaded;
+        });
+    }
+
+    /**
+     * 한 팀의 집계
+     */
+    private static class TeamAggregate {
+
+        String name;
+        long count;
+        long sum;
+        final TreeMap<Integer, Long> ages = new TreeMap<>(); // 나이 -> 회원 수
+
+        void add(int age, long members) {
+            count += members;
+            sum += (long) age * members;
+            ages.merge(age, members, (current, added) -> current + added == 0 ? null : current + added);
+        }
+
+        TeamStatsDto toDto(Long teamId) {
+            return new TeamStatsDto(teamId, name, count, sum,
+                    count == 0 ? null : (double) sum / count,
+                    ages.isEmpty() ? null : ages.firstKey(),
+                    ages.isEmpty() ? null : ages.lastKey());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TeamAggregate other && count == other.count && sum == other.sum
+                    && Objects.equals(name, other.name) && ages.equals(other.ages);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, count, sum);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.study.querydsl.sql;
+
+/**
+ * statement-budget.mode=fail일 때 select 문 예산을 넘거나 N+1이 감지되면 던진다
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
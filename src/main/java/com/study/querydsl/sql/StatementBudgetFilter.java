@@ -0,0 +1,35 @@
+package com.study.querydsl.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * HTTP 요청마다 select 문 예산 범위를 연다
+ * StreamingResponseBody처럼 다른 스레드에서 실행되는 부분은 요청 범위로 세지 않는다(트랜잭션 범위로는 센다).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "querydsl.statement-budget", name = "enabled", matchIfMissing = true)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudgetInspector inspector;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inspector.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inspector.endRequest();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.study.querydsl.sql;
+
+import com.study.querydsl.config.StatementBudgetProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP 요청/트랜잭션마다 실행한 select 문을 세서 예산을 넘거나 N+1 패턴이 보이면 알린다
+ *
+ * 하이버네이트가 SQL을 준비할 때마다 호출되는 StatementInspector로 등록된다.
+ * 파라미터는 ?로 바인딩되므로 같은 SQL이 반복된다는 것은 지연 로딩 같은 N+1 패턴이라는 뜻이다.
+ * insert/update는 JDBC 배치로 묶이므로 세지 않는다.
+ *
+ * sql.statement.budget.violations{scope, type}   예산 초과(type=budget), N+1(type=repeat) 횟수
+ * sql.statements{scope}                           범위마다 실행한 select 문 수
+ */
+@Slf4j
+@Component
+public class StatementBudgetInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    static final String VIOLATIONS = "sql.statement.budget.violations";
+    static final String STATEMENTS = "sql.statements";
+
+    // use_sql_comments로 붙는 주석
+    private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+
+    private final StatementBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadLocal<StatementCounter> currentRequest = new ThreadLocal<>();
+    // 트랜잭션에 바인딩하는 리소스 키
+    private final Object transactionKey = new Object();
+
+    public StatementBudgetInspector(StatementBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 다른 StatementInspector가 설정되어 있으면(테스트 등) 그쪽을 사용한다
+     */
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (properties.isEnabled()) {
+            hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, this);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String statement = LEADING_COMMENT.matcher(sql).replaceFirst("");
+        if (!isQuery(statement)) {
+            return sql;
+        }
+
+        StatementCounter request = currentRequest.get();
+        if (request != null) {
+            check(request, statement, properties.getMaxPerRequest());
+        }
+        StatementCounter transaction = transactionCounter();
+        if (transaction != null) {
+            check(transaction, statement, properties.getMaxPerTransaction());
+        }
+        return sql;
+    }
+
+    // 시퀀스 조회(select next value for ...)는 id 할당이므로 제외
+    private static boolean isQuery(String statement) {
+        return statement.regionMatches(true, 0, "select", 0, 6)
+                && !statement.regionMatches(true, 0, "select next value", 0, 17);
+    }
+
+    /**
+     * 예산 초과와 N+1은 임계값을 처음 넘을 때 한 번만 알린다
+     */
+    private void check(StatementCounter counter, String statement, int budget) {
+        int repeats = counter.record(statement);
+
+        if (counter.getStatements() == budget + 1) {
+            violation(counter, "budget", String.format("%s %s: select 문이 예산 %d개를 넘었습니다",
+                    counter.getScope(), counter.getName(), budget));
+        }
+        if (repeats == properties.getRepeatThreshold()) {
+            violation(counter, "repeat", String.format("%s %s: 같은 select 문이 %d번 반복됐습니다(N+1 의심)%n%s",
+                    counter.getScope(), counter.getName(), repeats, statement));
+        }
+    }
+
+    private void violation(StatementCounter counter, String type, String message) {
+        meterRegistry.counter(VIOLATIONS, "scope", counter.getScope(), "type", type).increment();
+
+        switch (properties.getMode()) {
+            case LOG -> log.warn(message);
+            case FAIL -> throw new StatementBudgetExceededException(message);
+            case METRIC -> {
+            }
+        }
+    }
+
+    /**
+     * HTTP 요청 범위를 시작한다. StatementBudgetFilter에서 호출
+     */
+    void beginRequest(String name) {
+        currentRequest.set(new StatementCounter(StatementCounter.REQUEST, name));
+    }
+
+    void endRequest() {
+        StatementCounter counter = currentRequest.get();
+        currentRequest.remove();
+        if (counter != null) {
+            recordStatements(counter);
+        }
+    }
+
+    /**
+     * 현재 트랜잭션의 카운터. 트랜잭션에서 처음 실행하는 select 문일 때 만들어서 바인딩한다
+     */
+    private StatementCounter transactionCounter() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        StatementCounter counter = (StatementCounter) TransactionSynchronizationManager.getResource(transactionKey);
+        if (counter == null) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            counter = new StatementCounter(StatementCounter.TRANSACTION, name == null ? "-" : name);
+            TransactionSynchronizationManager.bindResource(transactionKey, counter);
+            TransactionSynchronizationManager.registerSynchronization(new CounterSynchronization(counter));
+        }
+        return counter;
+    }
+
+    private void recordStatements(StatementCounter counter) {
+        DistributionSummary.builder(STATEMENTS)
+                .baseUnit("statements")
+                .tag("scope", counter.getScope())
+                .register(meterRegistry)
+                .record(counter.getStatements());
+    }
+
+    /**
+     * REQUIRES_NEW로 트랜잭션이 중단되면 카운터도 함께 내려놓고, 재개되면 다시 바인딩한다
+     */
+    private class CounterSynchronization implements TransactionSynchronization {
+
+        private final StatementCounter counter;
+
+        CounterSynchronization(StatementCounter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(transactionKey, counter);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+            recordStatements(counter);
+        }
+    }
+}
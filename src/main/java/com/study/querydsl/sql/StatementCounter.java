@@ -0,0 +1,35 @@
+package com.study.querydsl.sql;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 한 범위(HTTP 요청 또는 트랜잭션)에서 실행한 select 문 수
+ * 한 스레드에서만 사용한다.
+ */
+@Getter
+class StatementCounter {
+
+    static final String REQUEST = "request";
+    static final String TRANSACTION = "transaction";
+
+    private final String scope;
+    private final String name;
+    private int statements;
+    private final Map<String, Integer> repeats = new HashMap<>();
+
+    StatementCounter(String scope, String name) {
+        this.scope = scope;
+        this.name = name;
+    }
+
+    /**
+     * @return 같은 SQL이 이 범위에서 실행된 횟수
+     */
+    int record(String sql) {
+        statements++;
+        return repeats.merge(sql, 1, Integer::sum);
+    }
+}
@@ -0,0 +1,36 @@
+-- 하이버네이트가 만들던 스키마 + 검색 조건용 인덱스
+-- 이미 하이버네이트(ddl-auto)로 만든 DB에도 적용할 수 있도록 if not exists를 사용한다
+
+-- PooledSequenceGenerator의 allocation size(querydsl.id.allocation_size)와 increment by가 같아야 한다
+create sequence if not exists hello_seq start with 1 increment by 50;
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists team_seq start with 1 increment by 50;
+
+create table if not exists hello (
+    id bigint not null,
+    primary key (id)
+);
+
+create table if not exists team (
+    team_id bigint not null,
+    name    varchar(255),
+    primary key (team_id)
+);
+
+create table if not exists member (
+    member_id bigint  not null,
+    age       integer not null,
+    name      varchar(255),
+    team_id   bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+-- member.name = ? (search, findByName)
+create index if not exists idx_member_name on member (name);
+-- member.team_id in (?) [and age 범위] (teamName 조건, team 조인)
+create index if not exists idx_member_team_age on member (team_id, age);
+-- age 범위만 있는 검색
+create index if not exists idx_member_age on member (age);
+-- TeamNameDictionary에 없는 팀 이름 확인
+create index if not exists idx_team_name on team (name);
@@ -0,0 +1,10 @@
+-- 이름 앞부분/대소문자 무시 검색용 소문자 이름
+-- lower(name)으로 비교하면 name 인덱스를 쓸 수 없으므로 소문자로 저장한 컬럼에 인덱스를 만든다
+alter table member add column if not exists normalized_name varchar(255);
+
+update member
+set normalized_name = lower(name)
+where normalized_name is null
+  and name is not null;
+
+create index if not exists idx_member_normalized_name on member (normalized_name);
@@ -14,6 +14,7 @@ import com.study.querydsl.dto.UserDto;
 import com.study.querydsl.entity.Member;
 import com.study.querydsl.entity.QMember;
 import com.study.querydsl.entity.Team;
+import com.study.querydsl.projection.DtoProjections;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceContext;
@@ -487,6 +488,26 @@ public class QueryDSLTest {
         }
     }
 
+    @Test
+    @DisplayName("리플렉션 없이 생성한 함수로 DTO Projection")
+    void userDTO4() {
+        QMember subMember = new QMember("memberSub");
+
+        List<UserDto> result = queryFactory
+                .select(DtoProjections.fields(UserDto.class,
+                        member.name,
+                        ExpressionUtils.as(JPAExpressions
+                                .select(subMember.age.max())
+                                .from(subMember), "age")
+                ))
+                .from(member)
+                .fetch();
+
+        // 모든 row에 최대 나이가 들어간다
+        assertThat(result).isNotEmpty();
+        assertThat(result).extracting("age").containsOnly(result.get(0).getAge());
+    }
+
     @Test
     @DisplayName("BooleanBuilder를 사용한 동적쿼리")
     void dynamicQuery_BooleanBuilder() {
@@ -0,0 +1,50 @@
+package com.study.querydsl.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 클라이언트가 잘못 넘긴 파라미터는 500이 아니라 400으로 응답한다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class HelloControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("keyset 검색에 잘못된 커서를 넘기면 400")
+    void malformedCursor() throws Exception {
+        mockMvc.perform(get("/v2/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("keyset 검색의 size가 1보다 작으면 400")
+    void invalidSize() throws Exception {
+        mockMvc.perform(get("/v2/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("keyset 검색은 커서가 없으면 첫 페이지를 돌려준다")
+    void firstPage() throws Exception {
+        mockMvc.perform(get("/v2/members").param("size", "2"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("지원하지 않는 내보내기 형식은 400")
+    void unknownExportFormat() throws Exception {
+        mockMvc.perform(get("/v1/members/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,70 @@
+package com.study.querydsl.datasource;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 검색이 읽기 전용 트랜잭션에서 실행되어 replica로 라우팅되는지 확인한다
+ * replica는 primary와 같은 DB를 가리키는 별도 커넥션 풀이고, 풀마다 기록되는 hikaricp.connections.usage로 어느 쪽에서 읽었는지 본다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.read-replica.enabled=true",
+        "querydsl.read-replica.replicas[0].url=${spring.datasource.url}",
+        "querydsl.read-replica.replicas[0].username=${spring.datasource.username}",
+        "querydsl.read-replica.replicas[0].password=",
+        "querydsl.read-replica.read-your-writes-window=0s",
+        "querydsl.read-replica.health-check-interval=0s",
+        "querydsl.count-cache.enabled=false"})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA = "replica-0";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("/v1/members 검색은 replica에서 읽는다")
+    void searchEndpoint() throws Exception {
+        long before = replicaUsage();
+
+        mockMvc.perform(get("/v1/members").param("username", "member1"))
+                .andExpect(status().isOk());
+
+        assertThat(replicaUsage()).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("searchComplex는 replica에서 읽는다")
+    void searchComplex() {
+        long before = replicaUsage();
+
+        memberRepository.searchComplex(new MemberSearchCondition("member1"), PageRequest.of(0, 10));
+
+        assertThat(replicaUsage()).isGreaterThan(before);
+    }
+
+    private long replicaUsage() {
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", REPLICA).timer();
+        return usage == null ? 0 : usage.count();
+    }
+}
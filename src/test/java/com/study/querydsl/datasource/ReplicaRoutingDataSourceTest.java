@@ -0,0 +1,138 @@
+package com.study.querydsl.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary, replica 역할을 하는 H2 두 개로 라우팅을 확인한다
+ * 각 DB의 whoami 테이블에는 자기 이름이 들어있다.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA = "replica-0";
+
+    FlakyDataSource replica;
+    ReplicaRoutingDataSource routingDataSource;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate writeTransaction;
+    TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void before() {
+        DataSource primary = h2("routing_primary", "primary");
+        replica = new FlakyDataSource(h2("routing_replica", "replica"));
+
+        routingDataSource = new ReplicaRoutingDataSource(
+                Map.of(ReplicaRoutingDataSource.PRIMARY, primary, REPLICA, replica), List.of(REPLICA),
+                Duration.ofMillis(300), Duration.ZERO);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 replica, 쓰기 트랜잭션은 primary를 사용한다")
+    void route() {
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(whoami(writeTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("쓰기를 커밋한 스레드는 잠시 동안 primary에서 읽는다")
+    void readYourWrites() throws Exception {
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("update whoami set name = name"));
+
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("primary");
+        // 다른 스레드(요청)는 영향을 받지 않는다
+        assertThat(CompletableFuture.supplyAsync(() -> whoami(readOnlyTransaction)).get()).isEqualTo("replica");
+
+        Thread.sleep(400);
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("replica에 연결할 수 없으면 primary에서 읽고, 상태 확인에서 살아나면 다시 replica를 사용한다")
+    void fallback() {
+        replica.down = true;
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("primary");
+        assertThat(routingDataSource.isDown(REPLICA)).isTrue();
+
+        replica.down = false;
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("primary"); // 상태 확인 전까지는 빠져있다
+        routingDataSource.checkReplicas();
+        assertThat(whoami(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("계정을 지정해서 커넥션을 얻어도 같은 규칙으로 라우팅한다")
+    void connectionWithCredentials() throws SQLException {
+        String name = readOnlyTransaction.execute(status -> {
+            try (Connection connection = routingDataSource.getConnection("sa", "")) {
+                return new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                        .queryForObject("select name from whoami", String.class);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(name).isEqualTo("replica");
+
+        try (Connection connection = routingDataSource.getConnection("sa", "")) {
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("select name from whoami", String.class)).isEqualTo("primary");
+        }
+    }
+
+    private String whoami(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("select name from whoami", String.class));
+    }
+
+    private static DataSource h2(String database, String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists whoami (name varchar(20))");
+        jdbcTemplate.update("delete from whoami");
+        jdbcTemplate.update("insert into whoami values (?)", name);
+        return dataSource;
+    }
+
+    static class FlakyDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica down");
+            }
+            return super.getConnection();
+        }
+    }
+}
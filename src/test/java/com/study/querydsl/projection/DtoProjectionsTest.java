@@ -0,0 +1,69 @@
+package com.study.querydsl.projection;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import com.study.querydsl.dto.MemberDto;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.dto.UserDto;
+import com.study.querydsl.entity.QMember;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DtoProjectionsTest {
+
+    @Test
+    @DisplayName("setter로 값을 넣는 프로젝션")
+    void bean() {
+        DtoProjection<MemberDto> projection = DtoProjections.bean(MemberDto.class,
+                member.name.as("username"),
+                member.age);
+
+        MemberDto result = projection.newInstance("member1", 10);
+
+        assertThat(result).isEqualTo(new MemberDto("member1", 10));
+    }
+
+    @Test
+    @DisplayName("필드에 바로 값을 넣는 프로젝션, 서브쿼리 별칭")
+    void fields() {
+        QMember subMember = new QMember("memberSub");
+        DtoProjection<UserDto> projection = DtoProjections.fields(UserDto.class,
+                member.name,
+                ExpressionUtils.as(JPAExpressions
+                        .select(subMember.age.max())
+                        .from(subMember), "age"));
+
+        assertThat(projection.newInstance("member1", 21)).isEqualTo(new UserDto("member1", 21));
+        assertThat(projection.newInstance("member1", null)).isEqualTo(new UserDto("member1", 0));
+    }
+
+    @Test
+    @DisplayName("생성자 프로젝션")
+    void constructor() {
+        DtoProjection<MemberTeamDTO> projection = DtoProjections.constructor(MemberTeamDTO.class,
+                member.id,
+                member.name,
+                member.age,
+                team.id,
+                team.name);
+
+        MemberTeamDTO result = projection.newInstance(1L, "member1", null, null, null);
+
+        assertThat(result.getMemberId()).isEqualTo(1L);
+        assertThat(result.getUsername()).isEqualTo("member1");
+        assertThat(result.getAge()).isZero();
+        assertThat(result.getTeamId()).isNull();
+    }
+
+    @Test
+    @DisplayName("DTO에 없는 프로퍼티는 프로젝션을 만들 때 실패한다")
+    void unknownProperty() {
+        assertThatThrownBy(() -> DtoProjections.bean(UserDto.class, member.name.as("username")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "querydsl.search.concurrent-count.enabled=true",
+        "querydsl.count-cache.enabled=false"}) // 캐시에 count가 있으면 동시에 실행하지 않는다
+class ConcurrentCountTest {
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    ConcurrentCountExecutor concurrentCountExecutor;
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    List<Future<Long>> submitted = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void before() {
+        // 3개씩 3페이지: 가득 찬 첫 페이지, 가득 찬 중간 페이지, 1개뿐인 마지막 페이지
+        Team team = teamRepository.save(new Team("concurrentCount-" + UUID.randomUUID()));
+        for (int i = 0; i < 7; i++) {
+            memberRepository.save(new Member("concurrentCount" + i, 30 + i, team));
+        }
+        condition.setTeamName(team.getName());
+
+        clearInvocations(concurrentCountExecutor);
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Future<Long> future = (Future<Long>) invocation.callRealMethod();
+            submitted.add(future);
+            return future;
+        }).when(concurrentCountExecutor).submit(any());
+    }
+
+    @Test
+    @DisplayName("첫/중간 페이지는 동시에 실행한 count로 순서대로 실행한 것과 같은 결과를 돌려준다")
+    void sameAsSerial() {
+        for (int pageNumber : new int[]{0, 1}) {
+            PageRequest pageable = PageRequest.of(pageNumber, 3);
+            Page<MemberTeamDTO> serial = serial(pageable);
+            submitted.clear();
+
+            Page<MemberTeamDTO> concurrent = memberRepository.searchComplex(condition, pageable);
+
+            assertThat(submitted).hasSize(1);
+            assertThat(concurrent.getTotalElements()).isEqualTo(7).isEqualTo(serial.getTotalElements());
+            assertThat(concurrent.getContent()).extracting(MemberTeamDTO::getMemberId)
+                    .containsExactlyElementsOf(serial.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("마지막 페이지는 count 결과를 기다리지 않고 버린다")
+    void lastPage() {
+        PageRequest pageable = PageRequest.of(2, 3);
+        Page<MemberTeamDTO> serial = serial(pageable);
+        submitted.clear();
+        clearInvocations(concurrentCountExecutor);
+
+        Page<MemberTeamDTO> concurrent = memberRepository.searchComplex(condition, pageable);
+
+        assertThat(concurrent.getTotalElements()).isEqualTo(7).isEqualTo(serial.getTotalElements());
+        assertThat(concurrent.getContent()).extracting(MemberTeamDTO::getMemberId)
+                .containsExactlyElementsOf(serial.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+
+        verify(concurrentCountExecutor, never()).await(any());
+        assertThat(submitted).singleElement().satisfies(future -> assertThat(future.isDone()).isTrue());
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션 안에서는 count를 다른 커넥션에서 실행하지 않는다")
+    void writeTransaction() {
+        Page<MemberTeamDTO> page = serial(PageRequest.of(0, 3));
+
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        verify(concurrentCountExecutor, never()).submit(any());
+    }
+
+    // 쓰기 트랜잭션 안에서는 기존처럼 컨텐츠 쿼리 다음에 count 쿼리를 실행한다
+    private Page<MemberTeamDTO> serial(PageRequest pageable) {
+        clearInvocations(concurrentCountExecutor);
+        return transactionTemplate.execute(status -> memberRepository.searchComplex(condition, pageable));
+    }
+}
@@ -0,0 +1,118 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 연관관계를 함께 보여줄 때 실행되는 SQL 수가 데이터 수와 관계없이 일정한지 확인한다
+ */
+@SpringBootTest
+@Transactional
+class FetchStrategyTest {
+
+    static final String NAME = "fetchMember";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    List<Long> teamIds = new ArrayList<>();
+    Statistics statistics;
+
+    @BeforeEach
+    void before() {
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("fetchTeam" + i);
+            em.persist(team);
+            teamIds.add(team.getId());
+            em.persist(new Member(NAME, i, team));
+            em.persist(new Member(NAME, i + 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("지연 로딩하는 member.team은 batch fetch로 한 번에 조회된다")
+    void batchFetchTeam() {
+        List<Member> members = memberJpaRepository.findByName(NAME);
+        members.forEach(member -> member.getTeam().getName());
+
+        assertThat(members).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2); // member 1번 + team 1번
+    }
+
+    @Test
+    @DisplayName("지연 로딩하는 team.members는 batch fetch로 한 번에 조회된다")
+    void batchFetchMembers() {
+        List<Team> teams = teamRepository.findAllById(teamIds);
+        teams.forEach(team -> assertThat(team.getMembers()).hasSize(2));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2); // team 1번 + members 1번
+    }
+
+    @Test
+    @DisplayName("엔티티 그래프를 사용하면 연관관계까지 쿼리 한 번으로 조회된다")
+    void entityGraph() {
+        PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+
+        List<Member> members = memberRepository.findWithTeamByName(NAME);
+        assertThat(members).hasSize(10).allMatch(member -> util.isLoaded(member.getTeam()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        em.clear();
+        statistics.clear();
+        List<Team> teams = teamRepository.findTeamsWithMembers();
+        assertThat(teams).filteredOn(team -> teamIds.contains(team.getId()))
+                .hasSize(5)
+                .allMatch(team -> util.isLoaded(team, "members") && team.getMembers().size() == 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("fetch join으로 팀까지 한 번에 조회한다")
+    void fetchJoin() {
+        PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+
+        assertThat(memberJpaRepository.findAllWithTeam())
+                .filteredOn(member -> NAME.equals(member.getName()))
+                .hasSize(10)
+                .allMatch(member -> util.isLoaded(member.getTeam()));
+        em.clear();
+        assertThat(memberJpaRepository.findAllWithTeam_queryDSL())
+                .filteredOn(member -> NAME.equals(member.getName()))
+                .hasSize(10)
+                .allMatch(member -> util.isLoaded(member.getTeam()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,130 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.entity.Member;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.batch-loader.max-batch-size=16")
+@Transactional
+class MemberBatchLoaderTest {
+
+    @Autowired
+    MemberBatchLoader memberBatchLoader;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    ServletRequestAttributes request;
+    List<Long> ids = new ArrayList<>();
+    Statistics statistics;
+
+    @BeforeEach
+    void before() {
+        request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+
+        for (int i = 0; i < 40; i++) {
+            Member member = new Member("batchLoader" + i, i);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void after() {
+        request.requestCompleted();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("dispatch 전까지 모은 id는 in 쿼리 하나로 조회된다")
+    void dispatch() {
+        CompletableFuture<Optional<Member>> first = memberBatchLoader.load(ids.get(3));
+        CompletableFuture<Optional<Member>> second = memberBatchLoader.load(ids.get(1));
+        CompletableFuture<Optional<Member>> missing = memberBatchLoader.load(-1L);
+        assertThat(first).isNotDone();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        memberBatchLoader.dispatch();
+
+        assertThat(first.join()).map(Member::getName).contains("batchLoader3");
+        assertThat(second.join()).map(Member::getName).contains("batchLoader1");
+        assertThat(missing.join()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("여러 id를 max-batch-size씩 묶어서 조회하고 요청한 순서대로 돌려준다")
+    void loadMany() {
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(5, -1L);
+        requested.add(ids.get(0)); // 중복
+
+        List<Optional<Member>> members = memberBatchLoader.loadMany(requested);
+
+        assertThat(members).hasSize(requested.size());
+        for (int i = 0; i < requested.size(); i++) {
+            Long id = requested.get(i);
+            if (id == -1L) {
+                assertThat(members.get(i)).isEmpty();
+            } else {
+                assertThat(members.get(i)).map(Member::getId).contains(id);
+            }
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3); // 41개 id / 16
+    }
+
+    @Test
+    @DisplayName("같은 요청에서 이미 조회한 id는 다시 조회하지 않는다")
+    void cached() {
+        memberBatchLoader.loadMany(ids.subList(0, 10));
+        statistics.clear();
+
+        List<Optional<Member>> members = memberBatchLoader.loadMany(ids.subList(5, 10));
+
+        assertThat(members).allMatch(Optional::isPresent);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("dispatch 하지 않은 조회는 요청이 끝날 때 조회하지 않고 취소된다")
+    void requestCompleted() {
+        CompletableFuture<Optional<Member>> dispatched = memberBatchLoader.load(ids.get(0));
+        memberBatchLoader.dispatch();
+        CompletableFuture<Optional<Member>> future = memberBatchLoader.load(ids.get(1));
+        statistics.clear();
+
+        request.requestCompleted();
+
+        assertThat(future).isCancelled();
+        assertThat(dispatched.join()).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
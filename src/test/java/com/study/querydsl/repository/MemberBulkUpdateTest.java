@@ -0,0 +1,153 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "querydsl.bulk-update.chunk-size=7")
+@RecordApplicationEvents
+class MemberBulkUpdateTest {
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    ApplicationEvents events;
+
+    String name;
+
+    @BeforeEach
+    void before() {
+        name = "bulk-" + UUID.randomUUID(); // 공유 DB이므로 테스트마다 다른 회원을 대상으로 한다
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int age = 0; age < 30; age++) {
+            members.add(new Member(name, age, team));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 회원만 id 범위 청크마다 나눠서 update 한다")
+    void chunked() {
+        MemberSearchCondition condition = new MemberSearchCondition(name);
+        condition.setAgeGoe(10);
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+
+        long updated = memberRepository.bulkUpdateByCondition(condition,
+                new MemberBulkUpdate().set(member.age, member.age.add(100)),
+                progresses::add);
+
+        assertThat(updated).isEqualTo(20);
+        assertThat(progresses).hasSizeGreaterThan(1);
+        assertThat(progresses).allMatch(progress -> progress.toId() - progress.fromId() < 7);
+        assertThat(progresses.get(progresses.size() - 1).isLast()).isTrue();
+        assertThat(progresses.get(progresses.size() - 1).totalUpdated()).isEqualTo(20);
+        assertThat(events.stream(EntityChangedEvent.class).filter(EntityChangedEvent::isBulk)).hasSize(1); // 청크 수와 관계없이 한 번
+
+        assertThat(memberRepository.findByName(name))
+                .extracting(Member::getAge)
+                .allMatch(age -> age < 10 || age >= 110)
+                .filteredOn(age -> age >= 110)
+                .hasSize(20);
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 회원이 없는 id 범위는 청크로 나누지 않고 건너뛴다")
+    void skipEmptyRanges() {
+        List<Member> others = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            others.add(new Member("bulkOther-" + UUID.randomUUID(), i));
+        }
+        memberRepository.saveAll(others);
+        memberRepository.save(new Member(name, 99)); // 100개의 id 뒤에 떨어져 있는 회원
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+
+        long updated = memberRepository.bulkUpdateByCondition(new MemberSearchCondition(name),
+                new MemberBulkUpdate().set(member.age, member.age.add(1)),
+                progresses::add);
+
+        assertThat(updated).isEqualTo(31);
+        // 빈 범위를 지나갔다면 id 폭 130 / 7 = 19개 정도의 청크가 생긴다
+        assertThat(progresses).hasSizeLessThan(10);
+        assertThat(progresses).allMatch(progress -> progress.updated() > 0);
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 회원만 청크마다 나눠서 delete 한다")
+    void delete() {
+        MemberSearchCondition condition = new MemberSearchCondition(name);
+        condition.setAgeGoe(10);
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+
+        long deleted = memberRepository.bulkDeleteByCondition(condition, progresses::add);
+
+        assertThat(deleted).isEqualTo(20);
+        assertThat(progresses).hasSizeGreaterThan(1);
+        assertThat(memberRepository.findByName(name))
+                .extracting(Member::getAge)
+                .hasSize(10)
+                .allMatch(age -> age < 10);
+    }
+
+    @Test
+    @DisplayName("조건 없이 전체 회원을 delete 할 수 없다")
+    void deleteWithoutCondition() {
+        assertThatThrownBy(() -> memberRepository.bulkDeleteByCondition(new MemberSearchCondition()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("호출한 쪽 영속성 컨텍스트의 회원은 detach되어 다시 조회하면 바뀐 값을 읽는다")
+    void evictCallerPersistenceContext() {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Member before = memberRepository.findByName(name).get(0);
+            int age = before.getAge();
+
+            memberRepository.bulkUpdateByCondition(new MemberSearchCondition(name),
+                    new MemberBulkUpdate().set(member.age, member.age.add(1)));
+
+            assertThat(em.contains(before)).isFalse();
+            assertThat(em.find(Member.class, before.getId()).getAge()).isEqualTo(age + 1);
+        });
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션 안에서는 호출할 수 없다")
+    void writeTransaction() {
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.bulkUpdateByCondition(new MemberSearchCondition(name),
+                        new MemberBulkUpdate().set(member.age, 0))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,176 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * searchComplex의 count 결과가 검색조건별로 캐시되고, 커밋된 회원/팀 변경마다 무효화되는지 확인한다
+ * 첫 페이지가 가득 차야 count가 필요하므로 회원 5명을 2명씩 조회한다.
+ */
+@SpringBootTest
+class MemberCountCacheTest {
+
+    private static final String METHOD = "MemberRepositoryRepository.searchComplex";
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 2);
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    String name;
+    Team team;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        name = "countCache-" + UUID.randomUUID(); // 공유 DB이므로 테스트마다 다른 회원을 대상으로 한다
+        team = teamRepository.save(new Team("countCacheTeam-" + UUID.randomUUID()));
+        for (int i = 0; i < 5; i++) {
+            members.add(memberRepository.save(new Member(name, 20 + i, team)));
+        }
+    }
+
+    @Test
+    @DisplayName("정규화하면 같은 검색조건은 count 쿼리 없이 캐시에서 전체 개수를 읽는다")
+    void hit() {
+        assertThat(search(new MemberSearchCondition(name)).getTotalElements()).isEqualTo(5);
+        double counts = countQueries();
+        double hits = hits();
+
+        Page<MemberTeamDTO> page = search(new MemberSearchCondition("  " + name + " "));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(countQueries()).isEqualTo(counts);
+        assertThat(hits()).isGreaterThan(hits);
+    }
+
+    @Test
+    @DisplayName("회원 저장이 커밋되면 count를 다시 실행한다")
+    void save() {
+        search(new MemberSearchCondition(name));
+
+        memberRepository.save(new Member(name, 30, team));
+
+        assertRecounted(6);
+    }
+
+    @Test
+    @DisplayName("회원 삭제가 커밋되면 count를 다시 실행한다")
+    void delete() {
+        search(new MemberSearchCondition(name));
+
+        memberRepository.deleteById(members.get(0).getId());
+
+        assertRecounted(4);
+    }
+
+    @Test
+    @DisplayName("팀 이름이 바뀌면 count를 다시 실행한다")
+    void teamRenamed() {
+        MemberSearchCondition condition = new MemberSearchCondition(name);
+        condition.setTeamName(team.getName());
+        search(condition);
+        search(new MemberSearchCondition(name));
+
+        String renamed = "countCacheRenamed-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, team.getId()).setName(renamed));
+
+        double counts = countQueries();
+        MemberSearchCondition renamedCondition = new MemberSearchCondition(name);
+        renamedCondition.setTeamName(renamed);
+        assertThat(search(renamedCondition).getTotalElements()).isEqualTo(5);
+        search(new MemberSearchCondition(name));
+        assertThat(countQueries()).isEqualTo(counts + 2); // 이름만 조건으로 한 것도 캐시가 비워졌다
+    }
+
+    @Test
+    @DisplayName("벌크 update 후에는 count를 다시 실행한다")
+    void bulkUpdate() {
+        MemberSearchCondition condition = new MemberSearchCondition(name);
+        condition.setAgeGoe(22);
+        assertThat(search(condition).getTotalElements()).isEqualTo(3);
+
+        memberRepository.bulkUpdateByCondition(new MemberSearchCondition(name),
+                new MemberBulkUpdate().set(member.age, member.age.add(10)));
+
+        double counts = countQueries();
+        assertThat(search(condition).getTotalElements()).isEqualTo(5);
+        assertThat(countQueries()).isEqualTo(counts + 1);
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션 안에서는 캐시를 쓰지 않는다")
+    void writeTransaction() {
+        search(new MemberSearchCondition(name)); // 캐시에 올려둔다
+        double counts = countQueries();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member(name, 40, em.find(Team.class, team.getId()))); // 커밋 전
+
+            assertThat(search(new MemberSearchCondition(name)).getTotalElements()).isEqualTo(6);
+            assertThat(search(new MemberSearchCondition(name)).getTotalElements()).isEqualTo(6);
+            status.setRollbackOnly();
+        });
+
+        assertThat(countQueries()).isEqualTo(counts + 2);
+        assertThat(search(new MemberSearchCondition(name)).getTotalElements()).isEqualTo(5); // 롤백된 값이 남지 않았다
+    }
+
+    private Page<MemberTeamDTO> search(MemberSearchCondition condition) {
+        return memberRepository.searchComplex(condition, FIRST_PAGE);
+    }
+
+    private void assertRecounted(long expected) {
+        double counts = countQueries();
+        assertThat(search(new MemberSearchCondition(name)).getTotalElements()).isEqualTo(expected);
+        assertThat(countQueries()).isEqualTo(counts + 1);
+    }
+
+    // 검색조건 모양과 관계없이 searchComplex의 count 쿼리 실행 횟수
+    private double countQueries() {
+        return meterRegistry.find(MemberQueryMetrics.QUERY_TIMER)
+                .tags("method", METHOD, "phase", MemberQueryMetrics.COUNT)
+                .timers()
+                .stream()
+                .mapToDouble(Timer::count)
+                .sum();
+    }
+
+    private double hits() {
+        return meterRegistry.find("cache.gets")
+                .tags("cache", MemberCountCache.CACHE_NAME, "result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.ApproximateCount;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "querydsl.search.approximate-count.sample-size=200",
+        "querydsl.search.approximate-count.windows=4"})
+@Transactional
+class MemberCountEstimatorTest {
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @BeforeEach
+    void before() {
+        for (int i = 0; i < 1000; i++) {
+            em.persist(new Member("estimate" + i, i % 100));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("모든 회원이 맞는 조건이면 표본과 관계없이 전체 수와 같다")
+    void allMatch() {
+        long total = memberRepository.count();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(Integer.MIN_VALUE);
+
+        ApproximateCount count = memberRepository.approximateCount(condition);
+
+        assertThat(count.getEstimate()).isEqualTo(total);
+        assertThat(count.getErrorBound()).isZero();
+    }
+
+    @Test
+    @DisplayName("맞는 회원이 없으면 0으로 추정한다")
+    void noneMatch() {
+        ApproximateCount count = memberRepository.approximateCount(new MemberSearchCondition("noSuchMember"));
+
+        assertThat(count.getEstimate()).isZero();
+    }
+
+    @Test
+    @DisplayName("조건이 없으면 전체 수를 정확히 센다")
+    void noCondition() {
+        ApproximateCount count = memberRepository.approximateCount(new MemberSearchCondition());
+
+        assertThat(count).isEqualTo(ApproximateCount.exact(memberRepository.count()));
+    }
+
+    @Test
+    @DisplayName("구간마다 맞는 비율이 다르면 그 차이만큼 오차 범위가 커진다")
+    void ratioEstimate() {
+        ApproximateCount even = MemberCountEstimator.ratioEstimate(10_000,
+                new long[]{100, 100, 100, 100}, new long[]{50, 50, 50, 50});
+        ApproximateCount skewed = MemberCountEstimator.ratioEstimate(10_000,
+                new long[]{100, 100, 100, 100}, new long[]{100, 0, 100, 0});
+
+        assertThat(even.getEstimate()).isEqualTo(5_000);
+        assertThat(even.getErrorBound()).isZero();
+        assertThat(skewed.getEstimate()).isEqualTo(5_000);
+        assertThat(skewed.getErrorBound()).isGreaterThan(2_000);
+    }
+
+    @Test
+    @DisplayName("구간이 하나면 표본 크기에 따라 오차 범위가 줄어든다")
+    void ratioEstimate_singleWindow() {
+        ApproximateCount small = MemberCountEstimator.ratioEstimate(10_000, new long[]{100}, new long[]{25});
+        ApproximateCount large = MemberCountEstimator.ratioEstimate(10_000, new long[]{400}, new long[]{100});
+        ApproximateCount all = MemberCountEstimator.ratioEstimate(10_000, new long[]{10_000}, new long[]{2_500});
+
+        // 1.96 * sqrt((1 - 400/10000) * 0.25 * 0.75 / 400) * 10000
+        assertThat(large.getEstimate()).isEqualTo(2_500);
+        assertThat(large.getErrorBound()).isEqualTo(416);
+        assertThat(small.getErrorBound()).isGreaterThan(large.getErrorBound());
+        assertThat(all.getErrorBound()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.BulkIngestResult;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.service.MemberBulkIngestService;
+import com.study.querydsl.service.MemberDataSeeder;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * allocation size에 따른 insert 처리량 비교
+ * allocation size가 1이면 insert마다 시퀀스를 조회하므로 JDBC 배치가 효과를 보지 못한다.
+ * bulkIngest는 POST /members/bulk 경로(NDJSON 파싱 + StatelessSession 배치 insert)의 처리량이다.
+ *
+ * ./gradlew benchmarkTest --tests '*MemberIngestionBenchmarkTest*'
+ */
+@Tag("benchmark")
+class MemberIngestionBenchmarkTest {
+
+    static final int SAVE_COUNT = 5_000;
+    static final int BULK_COUNT = 200_000;
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:ingest_allocation_1;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.querydsl.id.allocation_size=1",
+            "logging.level.org.hibernate.SQL=info"})
+    class AllocationSize1 extends IngestionBenchmark {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:ingest_allocation_50;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.querydsl.id.allocation_size=50",
+            "logging.level.org.hibernate.SQL=info"})
+    class AllocationSize50 extends IngestionBenchmark {
+    }
+
+    abstract static class IngestionBenchmark {
+
+        @Autowired
+        MemberJpaRepository memberJpaRepository;
+
+        @Autowired
+        MemberDataSeeder memberDataSeeder;
+
+        @Autowired
+        MemberBulkIngestService memberBulkIngestService;
+
+        @Autowired
+        TeamRepository teamRepository;
+
+        @Test
+        void save() {
+            long start = System.nanoTime();
+            for (int i = 0; i < SAVE_COUNT; i++) {
+                memberJpaRepository.save(new Member("save" + i, i % 80));
+            }
+            report("MemberJpaRepository.save", SAVE_COUNT, start);
+        }
+
+        @Test
+        void bulkLoad() {
+            long start = System.nanoTime();
+            memberDataSeeder.seed(100, BULK_COUNT);
+            report("MemberDataSeeder.seed", BULK_COUNT, start);
+        }
+
+        @Test
+        void bulkIngest() throws IOException {
+            teamRepository.save(new Team("ingestTeam"));
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = 0; i < BULK_COUNT; i++) {
+                ndjson.append("{\"username\":\"ingest").append(i)
+                        .append("\",\"age\":").append(i % 80)
+                        .append(i % 2 == 0 ? ",\"teamName\":\"ingestTeam\"}\n" : "}\n");
+            }
+            byte[] body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+
+            long start = System.nanoTime();
+            BulkIngestResult result = memberBulkIngestService.ingest(new ByteArrayInputStream(body));
+            report("MemberBulkIngestService.ingest", (int) result.getInserted(), start);
+        }
+
+        private void report(String name, int rows, long start) {
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("[%s] %s: %d rows in %.2fs = %.0f inserts/s%n",
+                    getClass().getSimpleName(), name, rows, seconds, rows / seconds);
+        }
+    }
+}
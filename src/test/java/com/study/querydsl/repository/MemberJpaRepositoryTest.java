@@ -1,8 +1,11 @@
 package com.study.querydsl.repository;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.entity.Member;
 import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,7 +13,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static com.study.querydsl.entity.QMember.member;
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -58,4 +63,53 @@ class MemberJpaRepositoryTest {
         assertThat(result2).containsExactly(member1);
     }
 
-}
\ No newline at end of file
+    @Test
+    void stream_test(){
+        for (int i = 0; i < 5; i++) {
+            memberJpaRepository.save(new Member("stream" + i, 20 + i));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        List<MemberTeamDTO> expected = memberJpaRepository.search(condition);
+
+        try (Stream<MemberTeamDTO> result = memberJpaRepository.streamSearch(condition)) {
+            assertThat(result.toList()).containsExactlyInAnyOrderElementsOf(expected);
+        }
+
+        try (Stream<Member> result = memberJpaRepository.streamAll()) {
+            assertThat(result.count()).isEqualTo(memberJpaRepository.findAll().size());
+        }
+    }
+
+    @Test
+    @DisplayName("엔티티 스트림은 읽은 엔티티만 detach하고 호출한 쪽의 변경과 엔티티는 그대로 둔다")
+    void stream_keepsCallerState(){
+        for (int i = 0; i < 5; i++) {
+            memberJpaRepository.save(new Member("stream" + i, 20 + i));
+        }
+        em.flush();
+        em.clear();
+
+        Member pending = new Member("streamPending", 1);
+        em.persist(pending); // 아직 flush 하지 않았다
+        Member managed = em.find(Member.class, memberJpaRepository.findByName("stream0").get(0).getId());
+        managed.setAge(99); // flush 전의 변경
+
+        List<Member> streamed;
+        try (Stream<Member> result = ScrollableStreams.stream(em, queryFactory.selectFrom(member).createQuery(), null, 10, 2)) {
+            streamed = result.filter(m -> m.getName().startsWith("stream") && m != managed && m != pending).toList();
+        }
+
+        assertThat(em.contains(pending)).isTrue();
+        assertThat(em.contains(managed)).isTrue();
+        assertThat(streamed).isNotEmpty().anyMatch(m -> !em.contains(m));
+
+        em.flush();
+        em.clear();
+        assertThat(em.find(Member.class, managed.getId()).getAge()).isEqualTo(99);
+        assertThat(memberJpaRepository.findByName("streamPending")).hasSize(1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.count-cache.enabled=false")
+class MemberQueryMetricsTest {
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("검색하면 메서드와 검색조건 모양별로 content/count 시간과 row 수가 기록된다")
+    void searchComplex() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("metricsMember");
+        condition.setAgeGoe(10);
+
+        memberRepository.searchComplex(condition, PageRequest.of(1, 5));
+
+        String method = "MemberRepositoryRepository.searchComplex";
+        Timer content = meterRegistry.find(MemberQueryMetrics.QUERY_TIMER)
+                .tags("method", method, "shape", "username+ageGoe", "phase", MemberQueryMetrics.CONTENT)
+                .timer();
+        Timer count = meterRegistry.find(MemberQueryMetrics.QUERY_TIMER)
+                .tags("method", method, "shape", "username+ageGoe", "phase", MemberQueryMetrics.COUNT)
+                .timer();
+
+        assertThat(content).isNotNull();
+        assertThat(content.count()).isPositive();
+        assertThat(count).isNotNull(); // 두번째 페이지가 비어있으므로 count가 필요하다
+        assertThat(count.count()).isPositive();
+        assertThat(meterRegistry.find(MemberQueryMetrics.ROWS_SUMMARY)
+                .tags("method", method, "shape", "username+ageGoe")
+                .summary()).isNotNull();
+    }
+}
@@ -0,0 +1,150 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "querydsl.read-model.enabled=true",
+        "querydsl.read-model.verify-sample-rate=0"})
+class MemberReadModelTest {
+
+    @Autowired
+    MemberReadModel memberReadModel;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    String name;
+    String teamName;
+    Team team;
+
+    @BeforeEach
+    void before() throws InterruptedException {
+        name = "rm-" + UUID.randomUUID();
+        teamName = "rmTeam-" + UUID.randomUUID();
+        team = teamRepository.save(new Team(teamName));
+        for (int age = 0; age < 10; age++) {
+            memberJpaRepository.save(new Member(name, age * 10, team));
+        }
+        awaitReady();
+    }
+
+    @Test
+    @DisplayName("모든 검색조건 모양에서 메모리 검색 결과가 DB와 같다")
+    void sameAsDatabase() {
+        double before = memorySearches();
+        for (int shape = 0; shape <= MemberSearchShape.ALL; shape++) {
+            MemberSearchCondition condition = conditionOf(shape);
+            assertThat(memberJpaRepository.search(condition))
+                    .as(MemberSearchShape.describe(shape))
+                    .isEqualTo(database(condition));
+        }
+        assertThat(memorySearches() - before).isEqualTo(MemberSearchShape.ALL + 1);
+    }
+
+    @Test
+    @DisplayName("커밋된 변경은 바로 반영된다")
+    void entityEvents() {
+        Member target = memberJpaRepository.findByName(name).get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, target.getId()).setAge(1000);
+            em.find(Team.class, team.getId()).setName(teamName + "-renamed");
+        });
+
+        MemberSearchCondition byAge = new MemberSearchCondition(name);
+        byAge.setAgeGoe(1000);
+        assertThat(memberJpaRepository.search(byAge)).extracting(MemberTeamDTO::getMemberId)
+                .containsExactly(target.getId());
+
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName(teamName + "-renamed");
+        assertThat(memberJpaRepository.search(byTeam)).hasSize(10)
+                .allMatch(dto -> dto.getTeamName().equals(teamName + "-renamed"));
+
+        memberRepository.deleteById(target.getId());
+        assertThat(memberJpaRepository.search(new MemberSearchCondition(name))).hasSize(9);
+    }
+
+    @Test
+    @DisplayName("벌크 변경이 있으면 다시 읽고, 그동안은 DB에서 검색한다")
+    void bulkChange() throws InterruptedException {
+        memberRepository.bulkUpdateByCondition(new MemberSearchCondition(name),
+                new MemberBulkUpdate().set(member.age, 7));
+
+        // 다시 읽는 중이든 끝났든 결과는 DB와 같다
+        assertThat(memberJpaRepository.search(new MemberSearchCondition(name)))
+                .hasSize(10)
+                .allMatch(dto -> dto.getAge() == 7);
+
+        awaitReady();
+        assertThat(memberJpaRepository.search(new MemberSearchCondition(name)))
+                .isEqualTo(database(new MemberSearchCondition(name)));
+    }
+
+    private List<MemberTeamDTO> database(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        List<MemberTeamDTO> rows = new ArrayList<>(queryTemplates
+                .content(normalized, MemberSearchShape.of(normalized))
+                .getResultList());
+        rows.sort(Comparator.comparing(MemberTeamDTO::getMemberId));
+        return rows;
+    }
+
+    private MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) condition.setUsername(name);
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) condition.setTeamName(teamName);
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) condition.setAgeGoe(30);
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) condition.setAgeLoe(60);
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_STARTS_WITH)) condition.setNameStartsWith(name.substring(0, 8).toUpperCase());
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_IGNORE_CASE)) condition.setNameIgnoreCase(name.toUpperCase());
+        return condition;
+    }
+
+    private double memorySearches() {
+        return meterRegistry.counter("member.read_model.searches", "source", "memory").count();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        for (int i = 0; i < 100 && !memberReadModel.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(memberReadModel.isReady()).isTrue();
+    }
+}
@@ -1,5 +1,7 @@
 package com.study.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.CursorPage;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.entity.Member;
@@ -12,9 +14,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -23,6 +29,9 @@ class MemberRepositoryTest {
     static MemberRepositoryRepository memberRepository;
     static TeamRepository teamRepository;
 
+    @Autowired
+    JPAQueryFactory queryFactory;
+
     static String name1 = "eclipse";
     static String name2 = "hoola";
 
@@ -87,4 +96,99 @@ class MemberRepositoryTest {
             System.out.println("memberTeamDTO = " + memberTeamDTO);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Keyset 페이징 테스트")
+    void test5(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        long total = memberRepository.searchComplex(condition, PageRequest.of(0, 3)).getTotalElements();
+
+        List<Long> ids = new ArrayList<>();
+        CursorPage<MemberTeamDTO> page = memberRepository.searchKeyset(condition, null, 2);
+        assertThat(page.getPrevCursor()).isNull();
+        ids.addAll(page.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+
+        CursorPage<MemberTeamDTO> previous = page;
+        while (page.hasNext()) {
+            previous = page;
+            page = memberRepository.searchKeyset(condition, page.getNextCursor(), 2);
+            ids.addAll(page.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+        }
+
+        assertThat(ids).hasSize((int) total).isSorted().doesNotHaveDuplicates();
+
+        // init()에서 회원을 5명 넣었으므로 두 번째 페이지는 항상 있다
+        CursorPage<MemberTeamDTO> first = memberRepository.searchKeyset(condition, null, 2);
+        CursorPage<MemberTeamDTO> second = memberRepository.searchKeyset(condition, first.getNextCursor(), 2);
+        assertThat(second.hasPrev()).isTrue();
+        CursorPage<MemberTeamDTO> backToFirst = memberRepository.searchKeyset(condition, second.getPrevCursor(), 2);
+        assertThat(backToFirst.getContent()).isEqualTo(first.getContent());
+        assertThat(backToFirst.hasNext()).isTrue();
+
+        assertThat(page.hasPrev()).isTrue();
+        CursorPage<MemberTeamDTO> back = memberRepository.searchKeyset(condition, page.getPrevCursor(), 2);
+        assertThat(back.getContent()).isEqualTo(previous.getContent());
+    }
+
+    @Test
+    @DisplayName("팀 이름 조건은 팀 id 조건으로 바꿔도 조인 후 필터한 결과와 같다")
+    void test6(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA"); // 이름이 teamA인 팀이 여러 개
+
+        List<Long> expected = queryFactory
+                .select(member.id)
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq("teamA"))
+                .fetch();
+
+        List<MemberTeamDTO> result = memberRepository.search(condition);
+
+        assertThat(result).extracting("memberId").containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(result).extracting("teamName").containsOnly("teamA");
+
+        condition.setTeamName("없는팀");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("이름 앞부분, 대소문자를 무시한 이름으로 검색한다")
+    void test7(){
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setNameStartsWith(" MEMBER10 ");
+
+        assertThat(memberRepository.search(prefix))
+                .extracting(MemberTeamDTO::getUsername)
+                .contains("member100", "member101", "member102", "member103", "member104")
+                .allMatch(username -> username.toLowerCase().startsWith("member10"));
+
+        MemberSearchCondition ignoreCase = new MemberSearchCondition();
+        ignoreCase.setNameIgnoreCase("Member102");
+        ignoreCase.setAgeGoe(2);
+
+        assertThat(memberRepository.search(ignoreCase))
+                .extracting(MemberTeamDTO::getUsername)
+                .contains("member102")
+                .allMatch(username -> username.equalsIgnoreCase("member102"));
+    }
+
+    @Test
+    @DisplayName("Slice 페이징은 count 없이 다음 페이지 여부만 알려준다")
+    void test8(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setNameStartsWith("member10");
+        long total = memberRepository.searchComplex(condition, PageRequest.of(0, 3)).getTotalElements();
+
+        List<Long> ids = new ArrayList<>();
+        Slice<MemberTeamDTO> slice = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+        ids.addAll(slice.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+        while (slice.hasNext()) {
+            assertThat(slice.getContent()).hasSize(2);
+            slice = memberRepository.searchSlice(condition, slice.nextPageable());
+            ids.addAll(slice.getContent().stream().map(MemberTeamDTO::getMemberId).toList());
+        }
+
+        assertThat(ids).hasSize((int) total).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,210 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.config.SearchCoalescingProperties;
+import com.study.querydsl.dto.MemberSearchCondition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSearchCoalescerTest {
+
+    static final String METHOD = "test.search";
+    static final int CALLERS = 8;
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MemberSearchCoalescer coalescer;
+    ExecutorService executor;
+
+    @BeforeEach
+    void before() {
+        coalescer = new MemberSearchCoalescer(new SearchCoalescingProperties(), meterRegistry,
+                TransactionOperations.withoutTransaction(), Duration.ZERO);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("같은 검색이 동시에 들어오면 한 번만 실행하고 같은 결과를 나눠 받는다")
+    void coalesce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<List<String>> search = () -> {
+            executions.incrementAndGet();
+            awaitQuietly(release);
+            return List.of("member1");
+        };
+
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            MemberSearchCondition condition = new MemberSearchCondition(" member1 ").normalize(); // 매번 새 객체
+            results.add(executor.submit(() -> coalescer.execute(METHOD, condition, PageRequest.of(0, 10), search)));
+        }
+        waitUntil(() -> followers() == CALLERS - 1);
+        release.countDown();
+
+        List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("leader가 실패하면 기다리던 요청도 같은 예외를 받고, 다음 요청은 다시 실행한다")
+    void failure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSearchCondition condition = new MemberSearchCondition("member1").normalize();
+        Supplier<List<String>> failing = () -> {
+            awaitQuietly(release);
+            throw new IllegalStateException("boom");
+        };
+
+        Future<List<String>> leader = executor.submit(() -> coalescer.execute(METHOD, condition, null, failing));
+        waitUntil(() -> leaders() == 1);
+        Future<List<String>> follower = executor.submit(() -> coalescer.execute(METHOD, condition, null, failing));
+        waitUntil(() -> followers() == 1);
+        release.countDown();
+
+        for (Future<List<String>> result : List.of(leader, follower)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("boom");
+        }
+        assertThat(coalescer.execute(METHOD, condition, null, () -> List.of("retry"))).containsExactly("retry");
+    }
+
+    @Test
+    @DisplayName("페이지가 다르면 따로 실행한다")
+    void differentPage() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition("member1").normalize();
+        Supplier<List<String>> search = () -> {
+            executions.incrementAndGet();
+            awaitQuietly(release);
+            return List.of();
+        };
+
+        Future<List<String>> page0 = executor.submit(() -> coalescer.execute(METHOD, condition, PageRequest.of(0, 10), search));
+        Future<List<String>> page1 = executor.submit(() -> coalescer.execute(METHOD, condition, PageRequest.of(1, 10), search));
+        waitUntil(() -> leaders() == 2);
+        release.countDown();
+        page0.get(5, TimeUnit.SECONDS);
+        page1.get(5, TimeUnit.SECONDS);
+
+        assertThat(executions).hasValue(2);
+        assertThat(followers()).isZero();
+    }
+
+    @Test
+    @DisplayName("진행 중인 검색이 시작된 뒤에 쓰기를 커밋한 스레드는 기다리지 않고 따로 실행한다")
+    void writeAfterFlightStarted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSearchCondition condition = new MemberSearchCondition("member1").normalize();
+
+        Future<List<String>> leader = executor.submit(() -> coalescer.execute(METHOD, condition, null, () -> {
+            awaitQuietly(release);
+            return List.of("before write");
+        }));
+        waitUntil(() -> leaders() == 1);
+        Future<List<String>> writer = executor.submit(() -> {
+            coalescer.rememberWrite();
+            return coalescer.execute(METHOD, condition, null, () -> List.of("after write"));
+        });
+
+        assertThat(writer.get(5, TimeUnit.SECONDS)).containsExactly("after write");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("before write");
+        assertThat(followers()).isZero();
+        assertThat(count("bypassed")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("read-your-writes-window 안에서는 쓰기 이후에 시작된 검색과도 함께 쓰지 않는다")
+    void readYourWritesWindow() throws Exception {
+        coalescer = new MemberSearchCoalescer(new SearchCoalescingProperties(), meterRegistry,
+                TransactionOperations.withoutTransaction(), Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSearchCondition condition = new MemberSearchCondition("member1").normalize();
+
+        // 이 스레드는 먼저 쓰기를 커밋하고, 다른 스레드가 그 뒤에 시작한 검색을 만난다
+        Future<List<String>> writer = executor.submit(() -> {
+            coalescer.rememberWrite();
+            Future<List<String>> leader = executor.submit(() -> coalescer.execute(METHOD, condition, null, () -> {
+                awaitQuietly(release);
+                return List.of("replica");
+            }));
+            waitUntil(() -> leaders() == 1);
+            return coalescer.execute(METHOD, condition, null, () -> List.of("primary"));
+        });
+
+        assertThat(writer.get(5, TimeUnit.SECONDS)).containsExactly("primary");
+        release.countDown();
+        assertThat(followers()).isZero();
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션 안에서는 함께 쓰지 않는다")
+    void writeTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            coalescer.execute(METHOD, new MemberSearchCondition(), null, List::of);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(leaders()).isZero();
+    }
+
+    private double leaders() {
+        return count("leader");
+    }
+
+    private double followers() {
+        return count("follower");
+    }
+
+    private double count(String role) {
+        var counter = meterRegistry.find("member.search.coalescing").tags("method", METHOD, "role", role).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.CursorPage;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 검색조건이면 어느 진입점으로 조회하든 같은 회원을 대상으로 한다
+ */
+@SpringBootTest(properties = "querydsl.search.approximate-count.sample-size=1000000000") // 공유 DB 크기와 관계없이 정확히 센다
+class MemberSearchConsistencyTest {
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    List<Long> expected = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        String prefix = "consistency-" + UUID.randomUUID(); // 공유 DB이므로 테스트마다 다른 회원을 대상으로 한다
+        Team team = teamRepository.save(new Team(prefix));
+        for (int i = 0; i < 10; i++) {
+            Member saved = new Member(prefix + "-" + i, 20 + i, team);
+            memberRepository.save(saved);
+            if (saved.getAge() >= 22 && saved.getAge() <= 26) {
+                expected.add(saved.getId());
+            }
+        }
+
+        // 모든 조건을 다 쓴다. ageLoe까지 적용되면 20~29세 중 22~26세 5명
+        condition.setUsername(prefix + "-4");
+        condition.setTeamName(prefix);
+        condition.setAgeGoe(22);
+        condition.setAgeLoe(26);
+        condition.setNameStartsWith(prefix.toUpperCase());
+        condition.setNameIgnoreCase((prefix + "-4").toUpperCase());
+    }
+
+    @Test
+    @DisplayName("모든 조건을 쓴 검색은 진입점마다 같은 회원을 찾는다")
+    void allFields() {
+        List<Long> expectedIds = expected.subList(2, 3); // 이름까지 맞는 24세 한 명
+        assertConsistent(condition, expectedIds);
+    }
+
+    @Test
+    @DisplayName("ageLoe는 모든 진입점에서 적용된다")
+    void ageLoe() {
+        MemberSearchCondition ageRange = new MemberSearchCondition();
+        ageRange.setTeamName(condition.getTeamName());
+        ageRange.setNameStartsWith(condition.getNameStartsWith());
+        ageRange.setAgeGoe(22);
+        ageRange.setAgeLoe(26);
+
+        assertConsistent(ageRange, expected);
+    }
+
+    private void assertConsistent(MemberSearchCondition condition, List<Long> expectedIds) {
+        assertThat(ids(memberRepository.search(condition))).isEqualTo(expectedIds);
+        assertThat(ids(memberJpaRepository.search(condition))).isEqualTo(expectedIds);
+
+        assertThat(ids(memberRepository.searchComplex(condition, PageRequest.of(0, 100)).getContent())).isEqualTo(expectedIds);
+        Page<MemberTeamDTO> firstPage = memberRepository.searchComplex(condition, PageRequest.of(0, 1)); // count 쿼리를 실행한다
+        assertThat(firstPage.getTotalElements()).isEqualTo(expectedIds.size());
+
+        assertThat(ids(memberRepository.searchSlice(condition, PageRequest.of(0, 100)).getContent())).isEqualTo(expectedIds);
+        assertThat(keysetIds(condition)).isEqualTo(expectedIds);
+        assertThat(memberRepository.approximateCount(condition).getEstimate()).isEqualTo(expectedIds.size());
+
+        // 벌크 update/delete도 같은 회원만 바꾼다
+        assertThat(memberRepository.bulkUpdateByCondition(condition, new MemberBulkUpdate().set(member.age, member.age)))
+                .isEqualTo(expectedIds.size());
+        assertThat(memberRepository.bulkDeleteByCondition(condition)).isEqualTo(expectedIds.size());
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    private List<Long> keysetIds(MemberSearchCondition condition) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<MemberTeamDTO> page = memberRepository.searchKeyset(condition, cursor, 2);
+            ids.addAll(ids(page.getContent()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    // search 계열은 정렬을 지정하지 않으므로 id 순서로 비교한다
+    private static List<Long> ids(List<MemberTeamDTO> rows) {
+        return rows.stream().map(MemberTeamDTO::getMemberId).sorted().toList();
+    }
+}
@@ -0,0 +1,196 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.service.MemberDataSeeder;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 쿼리가 만들어내는 SQL이 모두 인덱스를 타는지 EXPLAIN으로 확인한다.
+ * 스키마는 운영과 같이 flyway 마이그레이션으로 만들고, ddl-auto=validate로 엔티티와 맞는지도 함께 검증된다.
+ * 인덱스를 지우거나 조건을 바꿔서 full scan이 생기면 실패한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search_plan;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.study.querydsl.repository.MemberSearchPlanTest$RecordingInspector",
+        "querydsl.count-cache.enabled=false"})
+class MemberSearchPlanTest {
+
+    private static final String FULL_SCAN = ".tableScan";
+
+    // 조건이 없는 검색(shape 0)은 모든 회원이 대상이므로 full scan이 맞다
+    // content는 한 페이지만큼 읽고 멈추고, count(*)는 H2가 테이블의 row 수로 바로 답한다
+    private static final Set<String> FULL_SCAN_ALLOWED = Set.of("content[none]", "count[none]");
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    MemberDataSeeder memberDataSeeder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    static boolean seeded;
+
+    @BeforeEach
+    void before() {
+        if (!seeded) {
+            memberDataSeeder.seed(20, 5_000);
+            jdbcTemplate.execute("analyze"); // 옵티마이저가 실제 데이터 분포를 보고 플랜을 고르도록
+            teamNameDictionary.idsOf("team1"); // 사전 로딩 쿼리(team 전체 조회)는 검증 대상에서 뺀다
+            seeded = true;
+        }
+    }
+
+    @Test
+    @DisplayName("검색 조건 모양별 content/count 쿼리는 full scan을 하지 않는다")
+    void searchTemplates() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        for (int shape = 0; shape <= MemberSearchShape.ALL; shape++) {
+            MemberSearchCondition condition = conditionOf(shape);
+            int s = shape;
+            explainAll("content[" + MemberSearchShape.describe(shape) + "]",
+                    () -> queryTemplates.content(condition, s).setMaxResults(10).getResultList(), plans);
+            explainAll("count[" + MemberSearchShape.describe(shape) + "]",
+                    () -> queryTemplates.count(condition, s).getSingleResult(), plans);
+        }
+
+        assertNoFullScan(plans);
+    }
+
+    @Test
+    @DisplayName("keyset 검색은 조건과 관계없이 full scan을 하지 않는다")
+    void searchKeyset() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        String cursor = MemberKeysetCursor.next(100L).encode();
+        for (int shape = 0; shape <= MemberSearchShape.ALL; shape++) {
+            MemberSearchCondition condition = conditionOf(shape);
+            explainAll("keyset[" + MemberSearchShape.describe(shape) + "]",
+                    () -> memberRepository.searchKeyset(condition, cursor, 20), plans);
+        }
+
+        assertNoFullScan(plans);
+    }
+
+    @Test
+    @DisplayName("이름으로 조회하는 쿼리는 이름 인덱스를 사용한다")
+    void findByName() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        explainAll("MemberJpaRepository.findByName", () -> memberJpaRepository.findByName("member1"), plans);
+        explainAll("MemberJpaRepository.findByName_queryDSL", () -> memberJpaRepository.findByName_queryDSL("member1"), plans);
+        explainAll("MemberRepositoryRepository.findByName", () -> memberRepository.findByName("member1"), plans);
+        explainAll("TeamNameDictionary.idsOf(unknown)", () -> teamNameDictionary.idsOf("noSuchTeam"), plans);
+
+        assertNoFullScan(plans);
+        assertThat(plans.values()).anyMatch(plan -> plan.contains("IDX_MEMBER_NAME"));
+    }
+
+    private static MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) condition.setUsername("member1");
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) condition.setTeamName("team1");
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) condition.setAgeGoe(30);
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) condition.setAgeLoe(40);
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_STARTS_WITH)) condition.setNameStartsWith("Mem");
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_IGNORE_CASE)) condition.setNameIgnoreCase("MEMBER1");
+        return condition;
+    }
+
+    /**
+     * action이 실행한 select 문을 모두 EXPLAIN 해서 plans에 담는다
+     */
+    private void explainAll(String name, Runnable action, Map<String, String> plans) {
+        List<String> statements = RecordingInspector.record(action);
+        assertThat(statements).as(name + " 실행한 쿼리").isNotEmpty();
+        for (int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i);
+            String plan = explain(sql);
+            plans.put(statements.size() == 1 ? name : name + "#" + i, plan);
+        }
+    }
+
+    private String explain(String sql) {
+        Object[] args = new Object[countParameters(sql)];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = "1"; // 플랜만 보므로 값은 상관없다. H2가 컬럼 타입에 맞게 변환한다
+        }
+        List<String> rows = jdbcTemplate.queryForList("explain " + sql, String.class, args);
+        return String.join("\n", rows);
+    }
+
+    private static int countParameters(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') count++;
+        }
+        return count;
+    }
+
+    private static void assertNoFullScan(Map<String, String> plans) {
+        List<String> fullScans = new ArrayList<>();
+        plans.forEach((name, plan) -> {
+            if (plan.contains(FULL_SCAN) && !FULL_SCAN_ALLOWED.contains(name)) fullScans.add(name + "\n" + plan);
+        });
+        assertThat(fullScans).as("full scan 하는 쿼리").isEmpty();
+    }
+
+    /**
+     * 하이버네이트가 실행하는 SQL을 가로채서 기록한다
+     * hibernate.session_factory.statement_inspector로 클래스 이름을 지정하므로 public 기본 생성자가 필요하다.
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        static List<String> record(Runnable action) {
+            List<String> statements = new ArrayList<>();
+            RECORDED.set(statements);
+            try {
+                action.run();
+            } finally {
+                RECORDED.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = RECORDED.get();
+            if (statements != null) {
+                String statement = LEADING_COMMENT.matcher(sql).replaceFirst(""); // use_sql_comments로 붙는 주석 제거
+                if (statement.regionMatches(true, 0, "select", 0, 6)) {
+                    statements.add(statement);
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchShapeTest {
+
+    @Test
+    @DisplayName("값이 달라도 설정된 조건이 같으면 같은 모양이다")
+    void sameShape() {
+        MemberSearchCondition condition1 = new MemberSearchCondition("member1");
+        condition1.setAgeGoe(10);
+        MemberSearchCondition condition2 = new MemberSearchCondition(" member2 ");
+        condition2.setAgeGoe(30);
+
+        int shape1 = MemberSearchShape.of(condition1.normalize());
+        int shape2 = MemberSearchShape.of(condition2.normalize());
+
+        assertThat(shape1).isEqualTo(shape2);
+        assertThat(MemberSearchShape.describe(shape1)).isEqualTo("username+ageGoe");
+    }
+
+    @Test
+    @DisplayName("빈 문자열은 조건이 없는 것으로 본다")
+    void blankIsAbsent() {
+        MemberSearchCondition condition = new MemberSearchCondition(" ");
+        condition.setTeamName("");
+
+        int shape = MemberSearchShape.of(condition.normalize());
+
+        assertThat(shape).isZero();
+        assertThat(MemberSearchShape.describe(shape)).isEqualTo("none");
+    }
+
+    @Test
+    @DisplayName("대소문자를 무시하는 조건은 소문자로 정규화한다")
+    void lowerCaseName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setNameStartsWith(" MeM ");
+        condition.setNameIgnoreCase("Member1");
+
+        MemberSearchCondition normalized = condition.normalize();
+
+        assertThat(normalized.getNameStartsWith()).isEqualTo("mem");
+        assertThat(normalized.getNameIgnoreCase()).isEqualTo("member1");
+        assertThat(MemberSearchShape.describe(MemberSearchShape.of(normalized))).isEqualTo("nameStartsWith+nameIgnoreCase");
+    }
+}
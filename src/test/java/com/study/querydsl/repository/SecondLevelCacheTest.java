@@ -0,0 +1,66 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.QMember;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Test
+    @DisplayName("findById는 두 번째부터 2차 캐시에서 조회한다")
+    void findById() {
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        Member member = new Member("cacheMember", 10);
+        member.setTeam(team);
+        memberJpaRepository.save(member);
+
+        emf.getCache().evictAll();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        memberJpaRepository.findById(member.getId());
+        assertThat(emf.getCache().contains(Member.class, member.getId())).isTrue();
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        memberJpaRepository.findById(member.getId());
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    @DisplayName("벌크 update 후에는 2차 캐시에 있던 회원을 DB에서 다시 읽는다")
+    void bulkUpdate() {
+        Member member = new Member("cacheBulk-" + UUID.randomUUID(), 10);
+        memberJpaRepository.save(member);
+        memberJpaRepository.findById(member.getId());
+        assertThat(emf.getCache().contains(Member.class, member.getId())).isTrue();
+
+        memberRepository.bulkUpdateByCondition(new MemberSearchCondition(member.getName()),
+                new MemberBulkUpdate().set(QMember.member.age, 20));
+
+        assertThat(memberJpaRepository.findById(member.getId()).orElseThrow().getAge()).isEqualTo(20);
+    }
+}
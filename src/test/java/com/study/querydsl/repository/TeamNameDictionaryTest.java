@@ -0,0 +1,48 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.entity.Team;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TeamNameDictionaryTest {
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("롤백된 팀 이름 변경은 사전에 남지 않는다")
+    void rollback() {
+        String name = "dictionary-" + UUID.randomUUID();
+        String renamed = "dictionary-" + UUID.randomUUID();
+        Long teamId = teamRepository.save(new Team(name)).getId();
+        teamNameDictionary.invalidate(); // 쓰기 트랜잭션 안에서 처음 읽게 한다
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            teamRepository.findById(teamId).orElseThrow().setName(renamed);
+            teamRepository.flush();
+
+            // 같은 트랜잭션 안에서는 바뀐 이름으로 찾을 수 있다
+            assertThat(teamNameDictionary.idsOf(renamed)).containsExactly(teamId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamNameDictionary.idsOf(renamed)).isEqualTo(List.of(TeamNameDictionary.MISSING_TEAM_ID));
+        assertThat(teamNameDictionary.idsOf(name)).containsExactly(teamId);
+    }
+}
@@ -0,0 +1,125 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.BulkIngestResult;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.event.EntityChangedEvent;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import com.study.querydsl.repository.TeamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "querydsl.ingest.batch-size=2",
+        "querydsl.ingest.commit-interval=3"})
+@RecordApplicationEvents
+class MemberBulkIngestServiceTest {
+
+    @Autowired
+    MemberBulkIngestService memberBulkIngestService;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ApplicationEvents events;
+
+    String name;
+    String teamName;
+
+    @BeforeEach
+    void before() {
+        name = "Ingest-" + UUID.randomUUID();
+        teamName = "ingestTeam-" + UUID.randomUUID();
+        teamRepository.save(new Team(teamName));
+    }
+
+    @Test
+    @DisplayName("잘못된 줄은 줄 번호와 함께 보고하고 나머지는 저장한다")
+    void partialFailure() throws IOException {
+        String ndjson = String.join("\n",
+                row(name, 20, teamName),
+                row(name, 21, null),
+                "{not json",
+                "",
+                row(name, 22, "noSuchTeam-" + UUID.randomUUID()),
+                row(" ", 23, null),
+                row(name, -1, null),
+                row("x".repeat(300), 24, null), // 컬럼 길이를 넘어서 insert가 실패한다
+                row(name, 25, teamName));
+
+        BulkIngestResult result = memberBulkIngestService.ingest(input(ndjson));
+
+        assertThat(result.getReceived()).isEqualTo(8);
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(5);
+        assertThat(result.getErrors())
+                .extracting(BulkIngestResult.LineError::getLine)
+                .containsExactlyInAnyOrder(3L, 5L, 6L, 7L, 8L);
+
+        List<Member> members = memberRepository.findByName(name);
+        assertThat(members).extracting(Member::getAge).containsExactlyInAnyOrder(20, 21, 25);
+        assertThat(members).allMatch(member -> member.getNormalizedName().equals(Member.normalizeName(name)));
+    }
+
+    @Test
+    @DisplayName("팀 이름으로 찾은 팀에 저장하고 캐시된 팀의 회원 목록에도 바로 보인다")
+    void team() throws IOException {
+        Long teamId = teamRepository.findAll().stream()
+                .filter(team -> teamName.equals(team.getName()))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer before = transactionTemplate.execute(status -> teamRepository.findById(teamId).orElseThrow().getMembers().size());
+
+        memberBulkIngestService.ingest(input(row(name, 30, teamName) + "\n" + row(name, 31, teamName)));
+
+        Integer after = transactionTemplate.execute(status -> teamRepository.findById(teamId).orElseThrow().getMembers().size());
+        assertThat(before).isZero(); // team.members 컬렉션 캐시에 빈 목록이 올라가 있었다
+        assertThat(after).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("커밋 범위가 여러 개여도 벌크 변경 이벤트는 한 번만 발행한다")
+    void publishOnce() throws IOException {
+        String ndjson = String.join("\n",
+                row(name, 1, null), row(name, 2, null), row(name, 3, null),
+                row(name, 4, null), row(name, 5, null), row(name, 6, null),
+                row(name, 7, null));
+
+        memberBulkIngestService.ingest(input(ndjson));
+
+        assertThat(events.stream(EntityChangedEvent.class).filter(EntityChangedEvent::isBulk)).hasSize(1);
+    }
+
+    private static String row(String username, int age, String teamName) {
+        String team = teamName == null ? "" : ",\"teamName\":\"" + teamName + "\"";
+        return "{\"username\":\"" + username + "\",\"age\":" + age + team + "}";
+    }
+
+    private static ByteArrayInputStream input(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+}
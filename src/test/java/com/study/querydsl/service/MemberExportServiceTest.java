@@ -0,0 +1,113 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import com.study.querydsl.repository.TeamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "querydsl.export.threads=3",
+        "querydsl.export.range-size=1000"})
+class MemberExportServiceTest {
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    String name;
+
+    @BeforeEach
+    void before() {
+        name = "export,\"" + UUID.randomUUID() + "\""; // CSV에서 따옴표로 감싸야 하는 이름
+        Team team = teamRepository.save(new Team("exportTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            members.add(new Member(name, i, i % 2 == 0 ? team : null));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @Test
+    @DisplayName("ordered이면 모든 회원을 id 순으로 내보낸다")
+    void ndjsonOrdered() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = memberExportService.export(ExportFormat.NDJSON, true, out);
+
+        List<String> lines = gunzipLines(out.toByteArray());
+        List<Long> ids = new ArrayList<>();
+        long exported = 0;
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            ids.add(row.get("memberId").asLong());
+            if (name.equals(row.get("username").asText())) exported++;
+        }
+
+        assertThat(lines).hasSize((int) memberRepository.count());
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(exported).isEqualTo(2500);
+        assertThat(result.rows()).isEqualTo(lines.size());
+        assertThat(result.bytes()).isEqualTo(out.size());
+        assertThat(result.rowsPerSecond()).isPositive();
+    }
+
+    @Test
+    @DisplayName("CSV는 헤더 다음에 한 줄에 한 명씩 쓰고 쉼표와 따옴표가 있는 값은 감싼다")
+    void csvUnordered() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = memberExportService.export(ExportFormat.CSV, false, out);
+
+        List<String> lines = gunzipLines(out.toByteArray());
+        String quoted = MemberExportService.csv(name);
+        assertThat(quoted).isEqualTo("\"" + name.replace("\"", "\"\"") + "\"");
+        assertThat(lines.get(0) + "\n").isEqualTo(MemberExportService.CSV_HEADER);
+        assertThat(lines).hasSize((int) result.rows() + 1);
+        assertThat(lines.stream().filter(line -> line.contains("," + quoted + ",")).count()).isEqualTo(2500);
+        assertThat(lines.stream().filter(line -> line.contains("," + quoted + ",exportTeam")).count()).isEqualTo(1250);
+    }
+
+    /**
+     * 범위마다 따로 압축한 gzip 멤버를 이어 붙인 결과도 GZIPInputStream 하나로 모두 읽힌다
+     */
+    private static List<String> gunzipLines(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+        }
+    }
+
+    @Test
+    @DisplayName("형식은 확장자로 대소문자 구분 없이 찾고, 모르는 형식은 비어 있다")
+    void ofExtension() {
+        assertThat(ExportFormat.ofExtension("CSV")).contains(ExportFormat.CSV);
+        assertThat(ExportFormat.ofExtension("ndjson")).contains(ExportFormat.NDJSON);
+        assertThat(ExportFormat.ofExtension("xml")).isEmpty();
+    }
+}
@@ -0,0 +1,150 @@
+package com.study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberBulkUpdate;
+import com.study.querydsl.repository.MemberRepositoryRepository;
+import com.study.querydsl.repository.TeamRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class TeamStatsStoreTest {
+
+    @Autowired
+    TeamStatsStore teamStatsStore;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepositoryRepository memberRepository;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Team teamA;
+    Team teamB;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        teamStatsStore.findAll(); // 먼저 집계해두고 이후 변경은 이벤트로 반영되는지 본다
+
+        teamA = teamRepository.save(new Team("statsA-" + UUID.randomUUID()));
+        teamB = teamRepository.save(new Team("statsB-" + UUID.randomUUID()));
+        for (int i = 0; i < 6; i++) {
+            members.add(memberRepository.save(new Member("stats" + i, 20 + i * 5, i % 2 == 0 ? teamA : teamB)));
+        }
+    }
+
+    @Test
+    @DisplayName("회원 추가/변경/삭제가 팀 통계에 바로 반영된다")
+    void incremental() {
+        assertSameAsDatabase();
+
+        Member moved = members.get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, moved.getId());
+            member.setAge(99);
+            member.setTeam(em.find(Team.class, teamB.getId()));
+        });
+        assertSameAsDatabase();
+
+        memberRepository.deleteById(members.get(1).getId());
+        assertSameAsDatabase();
+
+        TeamStatsDto stats = teamStatsStore.findByTeamId(teamB.getId()).orElseThrow();
+        assertThat(stats.getMax()).isEqualTo(99);
+        assertThat(stats.getTeamName()).isEqualTo(teamB.getName());
+    }
+
+    @Test
+    @DisplayName("벌크 변경 후에는 다시 집계한다")
+    void bulk() {
+        memberRepository.bulkUpdateByCondition(new MemberSearchCondition("stats0"),
+                new MemberBulkUpdate().set(member.age, member.age.add(1)));
+
+        assertSameAsDatabase();
+    }
+
+    @Test
+    @DisplayName("팀이 추가되면 회원이 없는 팀도 통계에 나온다")
+    void emptyTeam() {
+        Team empty = teamRepository.save(new Team("statsEmpty-" + UUID.randomUUID()));
+
+        TeamStatsDto stats = teamStatsStore.findByTeamId(empty.getId()).orElseThrow();
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getAvg()).isNull();
+    }
+
+    @Test
+    @DisplayName("이벤트 없이 DB가 바뀌면 reconcile이 DB에서 다시 집계한 값으로 바꾼다")
+    void reconcile() {
+        double drifted = meterRegistry.counter("team.stats.reconciliations", "result", "drift").count();
+        int maxBefore = teamStatsStore.findByTeamId(teamA.getId()).orElseThrow().getMax();
+
+        // 네이티브 쿼리는 변경 이벤트를 발행하지 않는다
+        transactionTemplate.executeWithoutResult(status -> em
+                .createNativeQuery("update member set age = age + 100 where team_id = :teamId")
+                .setParameter("teamId", teamA.getId())
+                .executeUpdate());
+        assertThat(teamStatsStore.findByTeamId(teamA.getId()).orElseThrow().getMax()).isEqualTo(maxBefore);
+
+        teamStatsStore.reconcile();
+
+        assertSameAsDatabase();
+        assertThat(meterRegistry.counter("team.stats.reconciliations", "result", "drift").count())
+                .isEqualTo(drifted + 1);
+
+        double matched = meterRegistry.counter("team.stats.reconciliations", "result", "match").count();
+        teamStatsStore.reconcile();
+        assertThat(meterRegistry.counter("team.stats.reconciliations", "result", "match").count())
+                .isEqualTo(matched + 1);
+    }
+
+    private void assertSameAsDatabase() {
+        for (Team team : List.of(teamA, teamB)) {
+            Tuple expected = queryFactory
+                    .select(member.count(), member.age.sum(), member.age.avg(), member.age.min(), member.age.max())
+                    .from(member)
+                    .where(member.team.id.eq(team.getId()))
+                    .fetchOne();
+            TeamStatsDto stats = teamStatsStore.findByTeamId(team.getId()).orElseThrow();
+
+            assertThat(stats.getCount()).isEqualTo(expected.get(member.count()));
+            assertThat(stats.getSum()).isEqualTo(expected.get(member.age.sum()).longValue());
+            Double avg = expected.get(member.age.avg());
+            assertThat(stats.getAvg()).isCloseTo(avg, within(0.001));
+            assertThat(stats.getMin()).isEqualTo(expected.get(member.age.min()));
+            assertThat(stats.getMax()).isEqualTo(expected.get(member.age.max()));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.study.querydsl.sql;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberSearchQueryTemplates;
+import com.study.querydsl.repository.MemberSearchShape;
+import com.study.querydsl.repository.TeamRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest(properties = {
+        "querydsl.statement-budget.mode=fail",
+        "querydsl.statement-budget.max-per-transaction=10",
+        "querydsl.statement-budget.repeat-threshold=3"})
+class StatementBudgetInspectorTest {
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
+    @Test
+    @DisplayName("같은 select 문이 반복되면 N+1로 보고 실패시킨다")
+    void repeatedStatement() {
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            teamIds.add(teamRepository.save(new Team("budgetTeam" + i)).getId());
+        }
+        emf.getCache().evictAll(); // 2차 캐시에서 읽으면 SQL이 실행되지 않는다
+
+        Throwable thrown = catchThrowable(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (Long teamId : teamIds) {
+                em.find(Team.class, teamId).getName();
+            }
+        }));
+
+        assertThat(thrown).isNotNull();
+        assertThat(NestedExceptionUtils.getMostSpecificCause(thrown))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("N+1");
+    }
+
+    @Test
+    @DisplayName("트랜잭션 하나에서 예산보다 많은 select 문을 실행하면 실패시킨다")
+    void budget() {
+        Throwable thrown = catchThrowable(() -> transactionTemplate.executeWithoutResult(status -> {
+            // 모양마다 SQL이 다르므로 반복으로는 감지되지 않는다
+            for (int shape = 1; shape <= MemberSearchShape.ALL; shape++) {
+                queryTemplates.content(conditionOf(shape), shape).getResultList();
+            }
+        }));
+
+        assertThat(thrown).isNotNull();
+        assertThat(NestedExceptionUtils.getMostSpecificCause(thrown))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("예산 10개");
+    }
+
+    @Test
+    @DisplayName("트랜잭션이 끝나면 카운터도 끝난다")
+    void perTransaction() {
+        for (int i = 0; i < 3; i++) {
+            transactionTemplate.executeWithoutResult(status ->
+                    queryTemplates.content(conditionOf(MemberSearchShape.ALL), MemberSearchShape.ALL).getResultList());
+        }
+    }
+
+    private static MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) condition.setUsername("budgetMember");
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) condition.setTeamName("budgetTeam0");
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) condition.setAgeGoe(10);
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) condition.setAgeLoe(40);
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_STARTS_WITH)) condition.setNameStartsWith("budget");
+        if (MemberSearchShape.has(shape, MemberSearchShape.NAME_IGNORE_CASE)) condition.setNameIgnoreCase("BUDGETMEMBER");
+        return condition;
+    }
+}